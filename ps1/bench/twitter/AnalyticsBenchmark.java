@@ -0,0 +1,121 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the Extract, Filter and SocialNetwork operations over
+ * synthetic corpora of 10k, 1M and 10M tweets. Each operation is one call over
+ * the whole corpus.
+ *
+ * The corpora come from TweetGenerator, with one user per 20 tweets and one
+ * hashtag per 100 users, so a few users write and are mentioned in most
+ * tweets, as on Twitter.
+ *
+ * Run main() to report the allocation rate alongside throughput; from the JMH
+ * command line, add -prof gc. The 10M corpus needs the 8 GB heap set below.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AnalyticsBenchmark {
+
+    private static final List<String> QUERY_WORDS = Arrays.asList("Tag3", "TAG7");
+
+    @Param({ "10000", "1000000", "10000000" })
+    public int corpusSize;
+
+    private List<Tweet> tweets;
+    private String username;
+    private Timespan timespan;
+    private Map<String, Set<String>> followsGraph;
+
+    @Setup
+    public void setUp() {
+        int userCount = Math.max(100, corpusSize / 20);
+        tweets = new TweetGenerator(6005, userCount, Math.max(10, userCount / 100)).next(corpusSize);
+
+        username = "USER1";
+        // the tenth of the corpus after its midpoint
+        Timespan all = Extract.getTimespan(tweets);
+        Duration length = Duration.between(all.getStart(), all.getEnd());
+        Instant middle = all.getStart().plus(length.dividedBy(2));
+        timespan = new Timespan(middle, middle.plus(length.dividedBy(10)));
+        followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public Timespan getTimespan() {
+        return Extract.getTimespan(tweets);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsers() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenBy() {
+        return Filter.writtenBy(tweets, username);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan() {
+        return Filter.inTimespan(tweets, timespan);
+    }
+
+    @Benchmark
+    public List<Tweet> containing() {
+        return Filter.containing(tweets, QUERY_WORDS);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> guessFollowsGraph() {
+        return SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public List<String> influencers() {
+        return SocialNetwork.influencers(followsGraph);
+    }
+
+    /**
+     * Run every benchmark in this class with the GC profiler, which adds the
+     * allocation rate (gc.alloc.rate and gc.alloc.rate.norm) to each result.
+     *
+     * @param args unused
+     * @throws RunnerException if JMH fails to run the benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AnalyticsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
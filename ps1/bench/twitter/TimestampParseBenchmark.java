@@ -0,0 +1,88 @@
+package twitter;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares ways of parsing a million created_at timestamps:
+ * the per-tweet formatter that TweetReader builds, a cached formatter, and
+ * the TwitterTimestamps fast path.
+ *
+ * Run with -prof gc to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimestampParseBenchmark {
+
+    private static final int CORPUS_SIZE = 1_000_000;
+
+    private String[] timestamps;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(6005);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(TwitterTimestamps.CREATED_AT_PATTERN, Locale.US);
+        long start = Instant.parse("2016-01-01T00:00:00Z").getEpochSecond();
+        timestamps = new String[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            Instant instant = Instant.ofEpochSecond(start + random.nextInt(365 * 24 * 60 * 60));
+            timestamps[i] = ZonedDateTime.ofInstant(instant, ZoneOffset.UTC).format(format);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void formatterPerTweet(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            ZonedDateTime parsed = ZonedDateTime.parse(timestamp,
+                    DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US));
+            blackhole.consume(parsed.toInstant());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void cachedFormatter(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(ZonedDateTime.parse(timestamp, TwitterTimestamps.CREATED_AT_FORMAT).toInstant());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void fastPathEpochSecond(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(TwitterTimestamps.parseEpochSecond(timestamp));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void fastPathInstant(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(TwitterTimestamps.parse(timestamp));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares finding mentions and hashtags with split-and-regex, as Extract and
+ * SocialNetwork used to, against the single-pass TweetTokenizer, over a long
+ * stream of tweet texts.
+ *
+ * Run with -prof gc to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final int STREAM_SIZE = 100_000;
+    private static final String[] WORDS = { "rivest", "talk", "in", "30", "minutes", "sup?",
+                                            "not", "much,", "e-mail", "mike@gmail.com", "!!!" };
+
+    private String[] texts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(6005);
+        texts = new String[STREAM_SIZE];
+        for (int i = 0; i < STREAM_SIZE; i++) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < 120) {
+                int kind = random.nextInt(10);
+                if (kind == 0) {
+                    text.append("@User").append(random.nextInt(1000));
+                } else if (kind == 1) {
+                    text.append("#tag").append(random.nextInt(100));
+                } else {
+                    text.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                text.append(' ');
+            }
+            texts[i] = text.toString();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_SIZE)
+    public List<Set<String>> splitAndRegex() {
+        List<Set<String>> results = new ArrayList<>(STREAM_SIZE);
+        for (String text : texts) {
+            Set<String> names = new HashSet<>();
+            for (String word : text.split("\\s")) {
+                if (Pattern.matches("@([A-Za-z0-9_-]+)", word)) {
+                    names.add(word.substring(1).toLowerCase());
+                }
+            }
+            for (String word : text.split("\\s")) {
+                if (Pattern.matches("#([A-Za-z0-9_-]+)", word)) {
+                    names.add(word.substring(1).toLowerCase());
+                }
+            }
+            results.add(names);
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_SIZE)
+    public List<Set<String>> singlePassScanner() {
+        List<Set<String>> results = new ArrayList<>(STREAM_SIZE);
+        for (String text : texts) {
+            Set<String> names = new HashSet<>();
+            TweetTokenizer.forEachMention(text, names::add);
+            TweetTokenizer.forEachHashtag(text, names::add);
+            results.add(names);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,349 @@
+package twitter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Read tweets from a web server in the background, handing them to the
+ * caller in pages as they arrive.
+ *
+ * A background task downloads and parses the server's response with a
+ * StreamingTweetReader and groups the tweets into pages. The caller asks for
+ * pages with nextPage(), which returns a CompletableFuture, so work on early
+ * pages (for example with Extract or Filter) can start while later bytes are
+ * still arriving; forEachPage() runs a consumer on a thread of its own for
+ * the same effect. At most maxBufferedPages parsed pages wait for the caller;
+ * once that many are waiting, the background task stops reading until the
+ * caller takes one, so a slow caller slows the download instead of filling
+ * memory.
+ *
+ * Threadsafe: nextPage() and close() may be called from any thread.
+ */
+public class AsyncTweetReader implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    /*
+     * Runs each download, and each forEachPage() consumer, on a new daemon
+     * thread. Both block (the download while the buffer is full, the consumer
+     * while it waits for a page), so they must not hold a thread of a shared
+     * pool such as the common fork/join pool, which the parallel Filter and
+     * SocialNetwork methods use.
+     */
+    private static final Executor NEW_DAEMON_THREAD = task -> {
+        Thread thread = new Thread(task, "AsyncTweetReader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final URL url;
+    private final int pageSize;
+    private final int maxBufferedPages;
+
+    private final Deque<List<Tweet>> pages = new ArrayDeque<>();
+    private CompletableFuture<List<Tweet>> waiting;
+    private boolean finished;
+    private Throwable failure;
+    private boolean closed;
+
+    // Abstraction function:
+    //   AF(url, pages, waiting, finished, failure) =
+    //       the rest of the tweets served at url, split into pages of pageSize
+    //       tweets (the last may be shorter), of which the ones in pages have
+    //       already been parsed; if failure != null the download failed after
+    //       those pages, and if waiting != null a caller is waiting for the
+    //       next page
+    //
+    // Representation invariant:
+    //   pageSize > 0 and maxBufferedPages > 0
+    //   pages.size() <= maxBufferedPages
+    //   every page in pages is nonempty and no longer than pageSize
+    //   waiting != null implies pages is empty and !finished
+    //   failure != null implies finished
+    //
+    // Safety from rep exposure:
+    //   all fields are private; pages are handed out as unmodifiable lists and
+    //   never kept after being handed out.
+    //
+    // Thread safety argument:
+    //   pages, waiting, finished, failure and closed are guarded by this
+    //   object's lock; futures are completed outside the lock, so callbacks
+    //   that call back into the reader cannot deadlock. The background task
+    //   waits on the lock while the buffer is full, and nextPage() and close()
+    //   notify it.
+
+    /**
+     * Start reading tweets from a web server in the background on a new
+     * daemon thread.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @param pageSize maximum number of tweets per page, requires pageSize > 0
+     * @param maxBufferedPages maximum number of parsed pages to hold before
+     *                         the caller takes them, requires maxBufferedPages > 0
+     */
+    public AsyncTweetReader(URL url, int pageSize, int maxBufferedPages) {
+        this(url, pageSize, maxBufferedPages, NEW_DAEMON_THREAD);
+    }
+
+    /**
+     * Start reading tweets from a web server in the background.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @param pageSize maximum number of tweets per page, requires pageSize > 0
+     * @param maxBufferedPages maximum number of parsed pages to hold before
+     *                         the caller takes them, requires maxBufferedPages > 0
+     * @param executor runs the background download; it holds one thread for
+     *                 as long as the download lasts, including while the
+     *                 buffer is full, so it should not be a pool shared with
+     *                 other work
+     */
+    public AsyncTweetReader(URL url, int pageSize, int maxBufferedPages, Executor executor) {
+        if (pageSize <= 0 || maxBufferedPages <= 0) {
+            throw new IllegalArgumentException("requires pageSize > 0 and maxBufferedPages > 0");
+        }
+        this.url = url;
+        this.pageSize = pageSize;
+        this.maxBufferedPages = maxBufferedPages;
+        checkRep();
+        executor.execute(this::download);
+    }
+
+    // Check that the rep invariant is true
+    private synchronized void checkRep() {
+        assert pageSize > 0 && maxBufferedPages > 0;
+        assert pages.size() <= maxBufferedPages;
+        assert waiting == null || (pages.isEmpty() && !finished);
+        assert failure == null || finished;
+    }
+
+    /**
+     * Read every tweet from a web server in the background, passing the tweets
+     * to a consumer one page at a time.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @param pageSize maximum number of tweets per page, requires pageSize > 0
+     * @param consumer receives the pages in the order the server sent the
+     *                 tweets, one page at a time, on a thread of its own, so
+     *                 the download continues while it works
+     * @return a future that completes when every page has been consumed, or
+     *         completes exceptionally if the download or the consumer fails
+     */
+    public static CompletableFuture<Void> readTweetsFromWeb(URL url, int pageSize, Consumer<? super List<Tweet>> consumer) {
+        AsyncTweetReader reader = new AsyncTweetReader(url, pageSize, 2);
+        return reader.forEachPage(consumer).whenComplete((result, e) -> reader.close());
+    }
+
+    /**
+     * Pass every remaining page to a consumer, one page at a time, on a new
+     * daemon thread. Pages keep downloading into the buffer while the
+     * consumer works on earlier ones. Requires that no other caller takes
+     * pages from this reader.
+     *
+     * @param consumer receives the pages in the order the server sent the
+     *                 tweets; the next page is not taken from the buffer until
+     *                 the consumer returns
+     * @return a future that completes when every page has been consumed, or
+     *         completes exceptionally if the download or the consumer fails
+     */
+    public CompletableFuture<Void> forEachPage(Consumer<? super List<Tweet>> consumer) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        NEW_DAEMON_THREAD.execute(() -> consumeAll(consumer, done));
+        return done;
+    }
+
+    /*
+     * Body of the consumer thread: take pages until the end of the tweets, then
+     * complete done.
+     */
+    private void consumeAll(Consumer<? super List<Tweet>> consumer, CompletableFuture<Void> done) {
+        try {
+            for (List<Tweet> page = nextPage().get(); !page.isEmpty(); page = nextPage().get()) {
+                consumer.accept(page);
+            }
+            done.complete(null);
+        } catch (ExecutionException ee) {
+            done.completeExceptionally(ee.getCause());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            done.completeExceptionally(ie);
+        } catch (RuntimeException | Error e) {
+            done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return number of parsed pages waiting in the buffer; for testing
+     */
+    synchronized int bufferedPages() {
+        return pages.size();
+    }
+
+    /**
+     * Get the next page of tweets. Only one page may be requested at a time:
+     * requires that the future returned by any earlier call has completed.
+     *
+     * @return a future that completes with the next page of at most pageSize
+     *         tweets, in the order the server sent them; with an empty list if
+     *         every tweet has been returned or this reader is closed; or
+     *         exceptionally, with an UncheckedIOException or JsonException, if
+     *         the server could not be read (including a connection or read
+     *         that timed out) or did not send a JSON array of tweets, or with
+     *         an InterruptedException if the background download was
+     *         interrupted. A page that is not ready yet completes on the
+     *         download thread, so dependent work should use the future's
+     *         Async methods or run elsewhere, or it holds up the download.
+     */
+    public CompletableFuture<List<Tweet>> nextPage() {
+        synchronized (this) {
+            if (waiting != null) {
+                throw new IllegalStateException("the previous page has not arrived yet");
+            }
+            if (!pages.isEmpty()) {
+                List<Tweet> page = pages.removeFirst();
+                notifyAll();
+                return CompletableFuture.completedFuture(page);
+            }
+            if (closed || (finished && failure == null)) {
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            if (failure != null) {
+                CompletableFuture<List<Tweet>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(failure);
+                return failed;
+            }
+            waiting = new CompletableFuture<>();
+            return waiting;
+        }
+    }
+
+    /**
+     * Stop downloading and discard any pages not yet returned. A page already
+     * requested completes with an empty list.
+     */
+    @Override public void close() {
+        CompletableFuture<List<Tweet>> abandoned;
+        synchronized (this) {
+            closed = true;
+            finished = true;
+            pages.clear();
+            abandoned = waiting;
+            waiting = null;
+            notifyAll();
+        }
+        if (abandoned != null) {
+            abandoned.complete(Collections.emptyList());
+        }
+    }
+
+    /*
+     * Body of the background task: parse the response into pages until it
+     * ends, it fails, or the reader is closed.
+     */
+    private void download() {
+        try (StreamingTweetReader tweets = new StreamingTweetReader(
+                new BufferedReader(new InputStreamReader(open(), StandardCharsets.UTF_8)))) {
+            List<Tweet> page = new ArrayList<>(pageSize);
+            while (tweets.hasNext()) {
+                page.add(tweets.next());
+                if (page.size() == pageSize) {
+                    if (!deliver(page)) {
+                        return;
+                    }
+                    page = new ArrayList<>(pageSize);
+                }
+            }
+            if (!page.isEmpty() && !deliver(page)) {
+                return;
+            }
+            finish(null);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            finish(ie);
+        } catch (IOException ioe) {
+            finish(new UncheckedIOException(ioe));
+        } catch (RuntimeException | Error e) {
+            finish(e);
+        }
+    }
+
+    /*
+     * Open the response, timing out if the server stalls while connecting or
+     * sending, so a dead server cannot hold the download forever.
+     */
+    private InputStream open() throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        return connection.getInputStream();
+    }
+
+    /*
+     * Hand a full page to the waiting caller, or buffer it, blocking while the
+     * buffer is full.
+     *
+     * @return false if the reader was closed and the download should stop
+     * @throws InterruptedException if interrupted while the buffer is full
+     */
+    private boolean deliver(List<Tweet> page) throws InterruptedException {
+        List<Tweet> unmodifiable = Collections.unmodifiableList(page);
+        CompletableFuture<List<Tweet>> receiver;
+        synchronized (this) {
+            while (!closed && pages.size() >= maxBufferedPages) {
+                wait();
+            }
+            if (closed) {
+                return false;
+            }
+            receiver = waiting;
+            waiting = null;
+            if (receiver == null) {
+                pages.addLast(unmodifiable);
+            }
+        }
+        if (receiver != null) {
+            receiver.complete(unmodifiable);
+        }
+        return true;
+    }
+
+    /*
+     * Record the end of the download, successful if e is null, and tell any
+     * waiting caller.
+     */
+    private void finish(Throwable e) {
+        CompletableFuture<List<Tweet>> receiver;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            finished = true;
+            failure = e;
+            receiver = waiting;
+            waiting = null;
+        }
+        if (receiver == null) {
+            return;
+        } else if (e == null) {
+            receiver.complete(Collections.emptyList());
+        } else {
+            receiver.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package twitter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * An immutable social network (as defined in SocialNetwork) stored as one
+ * compressed bitset of followed user ids per user, for networks too large or
+ * dense for Map<String, Set<String>>.
+ *
+ * Users are identified by their Usernames ids. A user who follows a whole
+ * hashtag community costs at most 8 KB per 65536 ids instead of a HashSet
+ * entry per followed user, and follower counts and common-followee queries
+ * run over the bitsets a word at a time. asMap() gives the usual Map form as
+ * a read-only view that converts a user's bitset to names only as it is read.
+ */
+public class BitsetFollowsGraph {
+
+    private final CompressedBitSet users;
+    private final CompressedBitSet[] follows;
+    private volatile int[] followerCounts;
+
+    // Abstraction function:
+    //   AF(users, follows) = the social network whose keys are the users
+    //       with ids in users, in which user u follows exactly the users with
+    //       ids in follows[u]
+    //
+    // Representation invariant:
+    //   follows[u] != null iff u is in users
+    //   no follows[u] contains u
+    //   followerCounts is null, or followerCounts[v] is the number of users
+    //     whose follows set contains v
+    //
+    // Safety from rep exposure:
+    //   all fields are private; the bitsets are never returned, and asMap()
+    //   and followees() return unmodifiable views.
+    //
+    // Thread safety argument:
+    //   users and follows are never modified after construction, and are
+    //   safely published by the final fields;
+    //   followerCounts is computed at most a few times, in full, before being
+    //   published through a volatile field.
+
+    private BitsetFollowsGraph(CompressedBitSet users, CompressedBitSet[] follows) {
+        this.users = users;
+        this.follows = follows;
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        for (int u = 0; u < follows.length; u++) {
+            assert (follows[u] != null) == users.contains(u);
+            assert follows[u] == null || !follows[u].contains(u);
+        }
+    }
+
+    /**
+     * Guess who might follow whom from tweets, with the same rules and result
+     * as SocialNetwork.guessFollowsGraph(tweets, maxUsersPerHashtag).
+     *
+     * @param tweets a list of tweets providing the evidence, not modified by
+     *               this method
+     * @param maxUsersPerHashtag hashtags used by more than this many authors
+     *                           are ignored
+     * @return the social network, whose users are the authors of tweets
+     */
+    public static BitsetFollowsGraph guessFollowsGraph(List<Tweet> tweets, int maxUsersPerHashtag) {
+        CompressedBitSet users = new CompressedBitSet();
+        CompressedBitSet[] follows = new CompressedBitSet[Usernames.size()];
+        Map<String, CompressedBitSet> hashtagUsers = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            int author = Usernames.id(tweet.getAuthor());
+            follows = ensureCapacity(follows, author);
+            if (follows[author] == null) {
+                users.add(author);
+                follows[author] = new CompressedBitSet();
+            }
+            CompressedBitSet mentioned = follows[author];
+            TweetTokenizer.forEachMentionId(tweet.getText(), id -> {
+                // ignore self-mention
+                if (id != author) {
+                    mentioned.add(id);
+                }
+            });
+            TweetTokenizer.forEachHashtag(tweet.getText(),
+                    hashtag -> hashtagUsers.computeIfAbsent(hashtag, key -> new CompressedBitSet()).add(author));
+        }
+
+        // users who share a hashtag follow each other: one union per user
+        for (CompressedBitSet community : hashtagUsers.values()) {
+            int size = community.cardinality();
+            if (size < 2 || size > maxUsersPerHashtag) {
+                continue;
+            }
+            CompressedBitSet[] target = follows;
+            community.forEach(user -> {
+                target[user].or(community);
+                target[user].remove(user);
+            });
+        }
+        return new BitsetFollowsGraph(users, follows);
+    }
+
+    /**
+     * Convert a social network to bitset form.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not
+     *                     modified by this method; usernames differing only in
+     *                     case are the same user, and a user following
+     *                     themselves is ignored
+     * @return the same social network, with lowercase usernames
+     */
+    public static BitsetFollowsGraph fromMap(Map<String, Set<String>> followsGraph) {
+        CompressedBitSet users = new CompressedBitSet();
+        CompressedBitSet[] follows = new CompressedBitSet[Usernames.size()];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int user = Usernames.id(entry.getKey());
+            follows = ensureCapacity(follows, user);
+            if (follows[user] == null) {
+                users.add(user);
+                follows[user] = new CompressedBitSet();
+            }
+            for (String followed : entry.getValue()) {
+                int id = Usernames.id(followed);
+                if (id != user) {
+                    follows[user].add(id);
+                }
+            }
+        }
+        return new BitsetFollowsGraph(users, follows);
+    }
+
+    private static CompressedBitSet[] ensureCapacity(CompressedBitSet[] follows, int id) {
+        if (id < follows.length) {
+            return follows;
+        }
+        return Arrays.copyOf(follows, Math.max(id + 1, follows.length * 2));
+    }
+
+    /*
+     * Queries look usernames up without adding them to Usernames, so asking
+     * about a user outside the network does not grow the shared table.
+     *
+     * @return the follows bitset of a user, or null if not a key
+     */
+    private CompressedBitSet followsOf(String username) {
+        int id = Usernames.find(username);
+        return id >= 0 && id < follows.length ? follows[id] : null;
+    }
+
+    /**
+     * @return number of users who are keys of this social network
+     */
+    public int userCount() {
+        return users.cardinality();
+    }
+
+    /**
+     * @param follower a Twitter username
+     * @param followed a Twitter username
+     * @return true iff follower follows followed, ignoring case
+     */
+    public boolean follows(String follower, String followed) {
+        CompressedBitSet set = followsOf(follower);
+        int id = Usernames.find(followed);
+        return set != null && id >= 0 && set.contains(id);
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the lowercase usernames that username follows, as an
+     *         unmodifiable view; empty if username is not a user
+     */
+    public Set<String> followees(String username) {
+        CompressedBitSet set = followsOf(username);
+        return set == null ? new NameSet(new CompressedBitSet()) : new NameSet(set);
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users that follow username, ignoring case
+     */
+    public int followerCount(String username) {
+        int[] counts = followerCounts();
+        int id = Usernames.find(username);
+        return id >= 0 && id < counts.length ? counts[id] : 0;
+    }
+
+    /**
+     * @param a a Twitter username
+     * @param b a Twitter username
+     * @return number of users that both a and b follow
+     */
+    public int commonFolloweeCount(String a, String b) {
+        CompressedBitSet followsA = followsOf(a);
+        CompressedBitSet followsB = followsOf(b);
+        return followsA == null || followsB == null ? 0 : followsA.andCardinality(followsB);
+    }
+
+    /**
+     * @param a a Twitter username
+     * @param b a Twitter username
+     * @return the lowercase usernames that both a and b follow
+     */
+    public Set<String> commonFollowees(String a, String b) {
+        CompressedBitSet followsA = followsOf(a);
+        CompressedBitSet followsB = followsOf(b);
+        if (followsA == null || followsB == null) {
+            return new NameSet(new CompressedBitSet());
+        }
+        return new NameSet(followsA.and(followsB));
+    }
+
+    /**
+     * Find the k users with the most followers, as
+     * SocialNetwork.influencers(asMap(), k) does, counting followers on the
+     * bitsets.
+     *
+     * @param k number of users to return, requires k >= 0
+     * @return the min(k, n) lowercase usernames of the n users in this network
+     *         (keys or followed) with the most followers, in descending order
+     *         of follower count; users with the same count are in alphabetical
+     *         order
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        int[] counts = followerCounts();
+        Map<String, int[]> followerCounts = new HashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0 || (id < follows.length && follows[id] != null)) {
+                followerCounts.put(Usernames.name(id), new int[] { counts[id] });
+            }
+        }
+        return SocialNetwork.rankByFollowers(followerCounts, k);
+    }
+
+    /*
+     * Follower count of every id that appears in this network.
+     */
+    private int[] followerCounts() {
+        int[] counts = followerCounts;
+        if (counts == null) {
+            int[] fresh = new int[Math.max(follows.length, Usernames.size())];
+            users.forEach(u -> follows[u].forEach(v -> fresh[v]++));
+            followerCounts = counts = fresh;
+        }
+        return counts;
+    }
+
+    /**
+     * @return this social network in the Map form defined in SocialNetwork,
+     *         with lowercase usernames, as an unmodifiable view; each user's
+     *         set of names is produced from the bitset only when read
+     */
+    public Map<String, Set<String>> asMap() {
+        return new AbstractMap<String, Set<String>>() {
+            @Override public Set<Map.Entry<String, Set<String>>> entrySet() {
+                return new AbstractSet<Map.Entry<String, Set<String>>>() {
+                    @Override public int size() {
+                        return users.cardinality();
+                    }
+
+                    @Override public Iterator<Map.Entry<String, Set<String>>> iterator() {
+                        PrimitiveIterator.OfInt ids = users.iterator();
+                        return new Iterator<Map.Entry<String, Set<String>>>() {
+                            @Override public boolean hasNext() {
+                                return ids.hasNext();
+                            }
+
+                            @Override public Map.Entry<String, Set<String>> next() {
+                                int id = ids.nextInt();
+                                return new AbstractMap.SimpleImmutableEntry<>(Usernames.name(id),
+                                        new NameSet(follows[id]));
+                            }
+                        };
+                    }
+                };
+            }
+
+            @Override public Set<String> get(Object key) {
+                int id = canonicalId(key);
+                return id >= 0 && id < follows.length && follows[id] != null ? new NameSet(follows[id]) : null;
+            }
+
+            @Override public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+        };
+    }
+
+    /*
+     * @return the id of key if it is a lowercase username, else -1
+     */
+    private static int canonicalId(Object key) {
+        if (!(key instanceof String) || ((String) key).isEmpty()
+                || !((String) key).chars().allMatch(c -> TweetTokenizer.isUsernameChar((char) c))) {
+            return -1;
+        }
+        int id = Usernames.find((String) key);
+        return id >= 0 && Usernames.name(id).equals(key) ? id : -1;
+    }
+
+    /**
+     * An unmodifiable view of a bitset of user ids as their lowercase names.
+     */
+    private static class NameSet extends AbstractSet<String> {
+        private final CompressedBitSet ids;
+
+        NameSet(CompressedBitSet ids) {
+            this.ids = ids;
+        }
+
+        @Override public int size() {
+            return ids.cardinality();
+        }
+
+        @Override public boolean contains(Object o) {
+            int id = canonicalId(o);
+            return id >= 0 && ids.contains(id);
+        }
+
+        @Override public Iterator<String> iterator() {
+            PrimitiveIterator.OfInt iterator = ids.iterator();
+            return new Iterator<String>() {
+                @Override public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override public String next() {
+                    return Usernames.name(iterator.nextInt());
+                }
+            };
+        }
+    }
+}
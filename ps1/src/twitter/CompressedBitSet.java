@@ -0,0 +1,561 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A mutable set of nonnegative ints stored as compressed bitsets, in the
+ * style of Roaring bitmaps.
+ *
+ * Values are grouped by their high 16 bits into chunks of 65536. A chunk with
+ * at most 4096 values stores them as a sorted array of their low 16 bits (2
+ * bytes per value); a denser chunk is a plain 8 KB bitmap. So sparse sets take
+ * about 2 bytes per value, dense ones at most 1 bit per possible value, and
+ * union and intersection work a chunk at a time with word-wide operations
+ * where chunks are dense.
+ *
+ * Not threadsafe.
+ */
+class CompressedBitSet {
+
+    /** Chunks with more values than this are stored as bitmaps. */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    // Abstraction function:
+    //   AF(keys, containers, size) = the union over i in [0, size) of
+    //       { (keys[i] << 16) | low : low in containers[i] }
+    //
+    // Representation invariant:
+    //   keys[0 .. size-1] is strictly increasing
+    //   containers[0 .. size-1] are nonnull, nonempty and not shared with
+    //     any other CompressedBitSet
+    //   an ArrayContainer holds at most MAX_ARRAY_SIZE values and a
+    //     BitmapContainer more than MAX_ARRAY_SIZE
+    //
+    // Safety from rep exposure:
+    //   all fields are private; containers are copied, never shared, when
+    //   combining sets.
+
+    /**
+     * Make an empty set.
+     */
+    CompressedBitSet() {
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert size <= keys.length && keys.length == containers.length;
+        for (int i = 0; i < size; i++) {
+            assert i == 0 || keys[i - 1] < keys[i];
+            assert containers[i].cardinality() > 0;
+        }
+    }
+
+    /**
+     * @param value value to add, requires value >= 0
+     * @return true iff the set did not already contain value
+     */
+    boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("requires value >= 0");
+        }
+        char key = (char) (value >>> 16);
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            i = insertContainer(-i - 1, key, new ArrayContainer());
+        }
+        Container container = containers[i];
+        int before = container.cardinality();
+        containers[i] = container.add((char) value);
+        return containers[i].cardinality() > before;
+    }
+
+    /**
+     * @param value value to remove
+     * @return true iff the set contained value
+     */
+    boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        int before = containers[i].cardinality();
+        containers[i] = containers[i].remove((char) value);
+        int after = containers[i].cardinality();
+        if (after == 0) {
+            removeContainer(i);
+        }
+        return after < before;
+    }
+
+    /**
+     * @param value any int
+     * @return true iff the set contains value
+     */
+    boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    /**
+     * @return number of values in the set
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return true iff the set has no values
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add every value of another set to this one.
+     *
+     * @param that set to add, not modified; may be this set
+     */
+    void or(CompressedBitSet that) {
+        if (that == this) {
+            return;
+        }
+        for (int j = 0; j < that.size; j++) {
+            char key = that.keys[j];
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            if (i < 0) {
+                insertContainer(-i - 1, key, that.containers[j].copy());
+            } else {
+                containers[i] = containers[i].or(that.containers[j]);
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * @param that another set
+     * @return a new set of the values in both this set and that
+     */
+    CompressedBitSet and(CompressedBitSet that) {
+        CompressedBitSet result = new CompressedBitSet();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < that.size) {
+            if (keys[i] < that.keys[j]) {
+                i++;
+            } else if (keys[i] > that.keys[j]) {
+                j++;
+            } else {
+                Container both = containers[i].and(that.containers[j]);
+                if (both.cardinality() > 0) {
+                    result.insertContainer(result.size, keys[i], both);
+                }
+                i++;
+                j++;
+            }
+        }
+        result.checkRep();
+        return result;
+    }
+
+    /**
+     * @param that another set
+     * @return number of values in both this set and that, without building
+     *         the intersection
+     */
+    int andCardinality(CompressedBitSet that) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < that.size) {
+            if (keys[i] < that.keys[j]) {
+                i++;
+            } else if (keys[i] > that.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(that.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param action called with each value of the set, in increasing order;
+     *               must not modify this set
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return the values of the set, in increasing order
+     */
+    int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] next = new int[1];
+        forEach(value -> values[next[0]++] = value);
+        return values;
+    }
+
+    /**
+     * @return an iterator over the values of the set in increasing order; the
+     *         set must not be modified while it is in use
+     */
+    PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int container = 0;
+            private int next = size == 0 ? -1 : containers[0].nextValue(0);
+
+            @Override public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                int value = (keys[container] << 16) | next;
+                next = next + 1 <= Character.MAX_VALUE ? containers[container].nextValue(next + 1) : -1;
+                if (next < 0 && ++container < size) {
+                    next = containers[container].nextValue(0);
+                }
+                return value;
+            }
+        };
+    }
+
+    @Override public boolean equals(Object thatObject) {
+        if (!(thatObject instanceof CompressedBitSet)) {
+            return false;
+        }
+        CompressedBitSet that = (CompressedBitSet) thatObject;
+        return Arrays.equals(this.toArray(), that.toArray());
+    }
+
+    @Override public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int insertContainer(int i, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+        return i;
+    }
+
+    private void removeContainer(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * The low 16 bits of the values in one chunk. Operations that may change
+     * the representation return the container to use from then on.
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+        abstract boolean contains(char value);
+        abstract Container add(char value);
+        abstract Container remove(char value);
+        abstract Container or(Container that);
+        abstract Container and(Container that);
+        abstract int andCardinality(Container that);
+        /** @return the smallest value >= from in this container, or -1 */
+        abstract int nextValue(int from);
+        abstract void forEach(int high, IntConsumer action);
+        abstract Container copy();
+    }
+
+    /**
+     * A sparse chunk: its values in a sorted array.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, values.length * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override Container or(Container that) {
+            if (that instanceof BitmapContainer) {
+                return that.copy().or(this);
+            }
+            ArrayContainer other = (ArrayContainer) that;
+            char[] merged = new char[cardinality + other.cardinality];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                char next;
+                if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                    next = values[i++];
+                } else if (i == cardinality || other.values[j] < values[i]) {
+                    next = other.values[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                merged[n++] = next;
+            }
+            ArrayContainer union = new ArrayContainer(merged, n);
+            return n > MAX_ARRAY_SIZE ? union.toBitmap() : union;
+        }
+
+        @Override Container and(Container that) {
+            char[] both = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (that.contains(values[i])) {
+                    both[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(both, n);
+        }
+
+        @Override int andCardinality(Container that) {
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (that.contains(values[i])) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        @Override int nextValue(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * A dense chunk: one bit per possible value.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1 << 10], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override Container add(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+            if ((word & bit) == 0) {
+                words[value >>> 6] = word | bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override Container remove(char value) {
+            long word = words[value >>> 6];
+            long bit = 1L << value;
+            if ((word & bit) != 0) {
+                words[value >>> 6] = word & ~bit;
+                cardinality--;
+                if (cardinality <= MAX_ARRAY_SIZE) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override Container or(Container that) {
+            if (that instanceof BitmapContainer) {
+                long[] other = ((BitmapContainer) that).words;
+                int n = 0;
+                for (int w = 0; w < words.length; w++) {
+                    words[w] |= other[w];
+                    n += Long.bitCount(words[w]);
+                }
+                cardinality = n;
+            } else {
+                ArrayContainer other = (ArrayContainer) that;
+                for (int i = 0; i < other.cardinality; i++) {
+                    add(other.values[i]);
+                }
+            }
+            return this;
+        }
+
+        @Override Container and(Container that) {
+            if (that instanceof ArrayContainer) {
+                return that.and(this);
+            }
+            long[] other = ((BitmapContainer) that).words;
+            long[] both = new long[words.length];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                both[w] = words[w] & other[w];
+                n += Long.bitCount(both[w]);
+            }
+            BitmapContainer result = new BitmapContainer(both, n);
+            return n <= MAX_ARRAY_SIZE ? result.toArray() : result;
+        }
+
+        @Override int andCardinality(Container that) {
+            if (that instanceof ArrayContainer) {
+                return that.andCardinality(this);
+            }
+            long[] other = ((BitmapContainer) that).words;
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                n += Long.bitCount(words[w] & other[w]);
+            }
+            return n;
+        }
+
+        @Override int nextValue(int from) {
+            int w = from >>> 6;
+            if (w >= words.length) {
+                return -1;
+            }
+            long word = words[w] & (-1L << from);
+            while (word == 0) {
+                if (++w == words.length) {
+                    return -1;
+                }
+                word = words[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(high | (w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package twitter;
+
+/**
+ * A mutable Count-Min sketch that estimates how many times each string has
+ * been added to it, in memory that does not grow with the input.
+ *
+ * Estimates never undercount. With width w and depth d, an estimate exceeds
+ * the true count by more than (e / w) * N, where N is the total of all counts
+ * added, with probability at most e^-d. Sketches with the same width and
+ * depth can be merged, for example to combine counts made on separate shards.
+ *
+ * Not threadsafe.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long total;
+
+    // Abstraction function:
+    //   AF(width, depth, counters, total) = a sketch of a multiset of strings
+    //       with total elements, where row i of the table is
+    //       counters[i * width .. (i + 1) * width), and counter
+    //       bucket(i, s) of row i is the sum of the counts of the strings that
+    //       hash to it in that row
+    //
+    // Representation invariant:
+    //   width > 0 and depth > 0
+    //   counters.length == width * depth
+    //   every counter is between 0 and total, and the counters of each row
+    //     sum to total
+    //
+    // Safety from rep exposure:
+    //   all fields are private, and all but total are final;
+    //   counters is never returned.
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param width number of counters per row, requires width > 0
+     * @param depth number of rows, requires depth > 0 and width * depth
+     *              counters to fit in an array
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0 || (long) width * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("requires width > 0, depth > 0 and a table that fits in an array");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+        checkRep();
+    }
+
+    /**
+     * Make an empty sketch whose estimates exceed the true count by more than
+     * epsilon * N with probability at most delta, where N is the total of all
+     * counts added.
+     *
+     * @param epsilon error bound as a fraction of the total, requires
+     *                0 < epsilon < 1
+     * @param delta probability of exceeding the bound, requires 0 < delta < 1
+     * @return a new empty sketch
+     */
+    public static CountMinSketch withErrorBounds(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1 && delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("requires 0 < epsilon < 1 and 0 < delta < 1");
+        }
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch(width, depth);
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert width > 0 && depth > 0;
+        assert counters.length == width * depth;
+        assert total >= 0;
+    }
+
+    /**
+     * @return number of counters per row
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return total of all counts added to this sketch and to sketches merged
+     *         into it
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Add one occurrence of a string.
+     *
+     * @param s string to count
+     */
+    public void add(String s) {
+        add(s, 1);
+    }
+
+    /**
+     * Add occurrences of a string.
+     *
+     * @param s string to count
+     * @param count number of occurrences, requires count >= 0
+     */
+    public void add(String s, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("requires count >= 0");
+        }
+        long hash = StringHash.hash64(s);
+        for (int row = 0; row < depth; row++) {
+            counters[bucket(row, hash)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * @param s a string
+     * @return an estimate of the number of occurrences of s added to this
+     *         sketch and to sketches merged into it; never less than the true
+     *         number
+     */
+    public long estimate(String s) {
+        long hash = StringHash.hash64(s);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[bucket(row, hash)]);
+        }
+        return min;
+    }
+
+    /**
+     * Add every occurrence counted by another sketch to this one.
+     *
+     * @param that sketch to merge in, not modified; requires the same width
+     *             and depth as this sketch
+     */
+    public void merge(CountMinSketch that) {
+        if (that.width != width || that.depth != depth) {
+            throw new IllegalArgumentException("cannot merge a " + width + "x" + depth + " sketch with a "
+                    + that.width + "x" + that.depth + " sketch");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += that.counters[i];
+        }
+        total += that.total;
+        checkRep();
+    }
+
+    /*
+     * Position in counters of the bucket for a hash in a row. Rows use the
+     * hashes h1 + row * h2 built from the two halves of the 64-bit hash, which
+     * are as good as independent hash functions for this purpose
+     * (Kirsch and Mitzenmacher, "Less Hashing, Same Performance").
+     */
+    private int bucket(int row, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+}
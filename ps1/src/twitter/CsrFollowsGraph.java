@@ -0,0 +1,228 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable social network (as defined in SocialNetwork) in compressed
+ * sparse row form, for algorithms that walk the whole graph many times.
+ *
+ * Users are numbered 0 .. vertexCount()-1 in alphabetical order of their
+ * lowercase usernames. The users each user follows, and the users following
+ * each user, are stored as slices of two primitive int arrays, so a graph
+ * with millions of edges takes a few bytes per edge and can be scanned
+ * without touching a single String or Set.
+ */
+public class CsrFollowsGraph {
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] followsOffsets;
+    private final int[] follows;
+    private final int[] followerOffsets;
+    private final int[] followers;
+
+    // Abstraction function:
+    //   AF(names, followsOffsets, follows, ...) = the social network over the
+    //       users names[0 .. n-1], n = names.length, in which user names[u]
+    //       follows exactly the users names[v] for v in
+    //       follows[followsOffsets[u] .. followsOffsets[u+1])
+    //
+    // Representation invariant:
+    //   names is strictly increasing and all lowercase, and ids maps names[u]
+    //     to u
+    //   followsOffsets and followerOffsets have length n + 1, start at 0, are
+    //     nondecreasing, and end at follows.length == followers.length
+    //   each slice of follows and of followers is strictly increasing and
+    //     holds ids in [0, n) other than its own vertex
+    //   v is in u's slice of follows iff u is in v's slice of followers
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final; arrays are only returned to
+    //   package-private callers that must not modify them, and ids is never
+    //   returned.
+
+    /**
+     * Compress a social network.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not
+     *                     modified by this constructor; usernames differing
+     *                     only in case are the same user, and a user
+     *                     following themselves is ignored
+     */
+    public CsrFollowsGraph(Map<String, Set<String>> followsGraph) {
+        Set<String> users = new HashSet<>();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            users.add(lowercase(entry.getKey()));
+            for (String followed : entry.getValue()) {
+                users.add(lowercase(followed));
+            }
+        }
+        this.names = users.toArray(new String[0]);
+        Arrays.sort(names);
+        this.ids = new HashMap<>(names.length * 4 / 3 + 1);
+        for (int u = 0; u < names.length; u++) {
+            ids.put(names[u], u);
+        }
+
+        // counting pass, then fill; keys differing in case may repeat edges
+        int n = names.length;
+        int[] counts = new int[n + 1];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            counts[ids.get(lowercase(entry.getKey())) + 1] += entry.getValue().size();
+        }
+        int[] offsets = prefixSums(counts);
+        int[] edges = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int u = ids.get(lowercase(entry.getKey()));
+            for (String followed : entry.getValue()) {
+                edges[fill[u]++] = ids.get(lowercase(followed));
+            }
+        }
+        int[] distinctOffsets = new int[n + 1];
+        int distinct = 0;
+        for (int u = 0; u < n; u++) {
+            Arrays.sort(edges, offsets[u], fill[u]);
+            for (int i = offsets[u]; i < fill[u]; i++) {
+                int v = edges[i];
+                if (v != u && (distinct == distinctOffsets[u] || edges[distinct - 1] != v)) {
+                    edges[distinct++] = v;
+                }
+            }
+            distinctOffsets[u + 1] = distinct;
+        }
+        this.followsOffsets = distinctOffsets;
+        this.follows = Arrays.copyOf(edges, distinct);
+
+        // transpose: scanning sources in increasing order keeps each slice sorted
+        int[] inCounts = new int[n + 1];
+        for (int v : follows) {
+            inCounts[v + 1]++;
+        }
+        this.followerOffsets = prefixSums(inCounts);
+        this.followers = new int[follows.length];
+        int[] inFill = Arrays.copyOf(followerOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int i = followsOffsets[u]; i < followsOffsets[u + 1]; i++) {
+                followers[inFill[follows[i]]++] = u;
+            }
+        }
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert followsOffsets.length == names.length + 1;
+        assert followerOffsets.length == names.length + 1;
+        assert followsOffsets[names.length] == follows.length;
+        assert followerOffsets[names.length] == followers.length;
+        assert follows.length == followers.length;
+    }
+
+    /*
+     * Same as s.toLowerCase(), without copying the usernames that are already
+     * lowercase, as nearly all are.
+     */
+    private static String lowercase(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.toLowerCase(c) != c) {
+                return s.toLowerCase();
+            }
+        }
+        return s;
+    }
+
+    /*
+     * Turn per-vertex counts, stored at index vertex + 1, into offsets.
+     */
+    private static int[] prefixSums(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        return counts;
+    }
+
+    /**
+     * @return number of users in this graph
+     */
+    public int vertexCount() {
+        return names.length;
+    }
+
+    /**
+     * @return number of follows edges in this graph
+     */
+    public int edgeCount() {
+        return follows.length;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the id of username in this graph, or -1 if it is not in the graph
+     */
+    public int id(String username) {
+        Integer id = ids.get(lowercase(username));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id a user id, requires 0 <= id < vertexCount()
+     * @return the lowercase username of that user
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id a user id, requires 0 <= id < vertexCount()
+     * @return number of users that user follows
+     */
+    public int followsCount(int id) {
+        return followsOffsets[id + 1] - followsOffsets[id];
+    }
+
+    /**
+     * @param id a user id, requires 0 <= id < vertexCount()
+     * @return number of users following that user
+     */
+    public int followerCount(int id) {
+        return followerOffsets[id + 1] - followerOffsets[id];
+    }
+
+    /**
+     * @param id a user id, requires 0 <= id < vertexCount()
+     * @return the ids of the users that user follows, in increasing order
+     */
+    public int[] follows(int id) {
+        return Arrays.copyOfRange(follows, followsOffsets[id], followsOffsets[id + 1]);
+    }
+
+    /**
+     * @param id a user id, requires 0 <= id < vertexCount()
+     * @return the ids of the users following that user, in increasing order
+     */
+    public int[] followers(int id) {
+        return Arrays.copyOfRange(followers, followerOffsets[id], followerOffsets[id + 1]);
+    }
+
+    /**
+     * @return offsets into followerIds(): the followers of user u are at
+     *         [offsets[u], offsets[u+1]); callers must not modify the array
+     */
+    int[] followerOffsets() {
+        return followerOffsets;
+    }
+
+    /**
+     * @return the followers of every user, grouped by followed user as
+     *         followerOffsets() describes; callers must not modify the array
+     */
+    int[] followerIds() {
+        return followers;
+    }
+}
@@ -4,12 +4,9 @@
 package twitter;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * Extract consists of methods that extract information from a list of tweets.
@@ -29,16 +26,25 @@ public class Extract {
      *         every tweet in the list.
      */
     public static Timespan getTimespan(List<Tweet> tweets) {
+        StageMetrics.Sample sample = PipelineMetrics.EXTRACT.start();
         if (tweets.isEmpty()) {
-            return new Timespan(Instant.now(), Instant.now());
+            Instant now = Instant.now();
+            PipelineMetrics.EXTRACT.stop(sample, 0, 0);
+            return new Timespan(now, now);
         } else {
-            // sort the tweets by timestamp
-            List<Tweet> sortedTweets = new ArrayList<>(tweets);            
-            sortedTweets.sort(Comparator.comparing(Tweet::getTimestamp));
-            // get the timestamp of first and last tweets
-            Instant start = sortedTweets.get(0).getTimestamp();
-            Instant end = sortedTweets.get(sortedTweets.size() - 1).getTimestamp();
+            // find the earliest and latest timestamps in one pass
+            Instant start = tweets.get(0).getTimestamp();
+            Instant end = start;
+            for (Tweet tweet : tweets) {
+                Instant timestamp = tweet.getTimestamp();
+                if (timestamp.isBefore(start)) {
+                    start = timestamp;
+                } else if (timestamp.isAfter(end)) {
+                    end = timestamp;
+                }
+            }
             
+            PipelineMetrics.EXTRACT.stop(sample, tweets.size(), 1);
             return new Timespan(start, end);
         }   
     }
@@ -59,20 +65,14 @@ public class Extract {
      *         include a username at most once.
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
+        StageMetrics.Sample sample = PipelineMetrics.EXTRACT.start();
         Set<String> usernamesMentioned = new HashSet<>();
         
+        // add the canonical names of twitter usernames starting with @ to result
         for (Tweet tweet : tweets) {
-            // split the tweet text into a list of words
-            String text = tweet.getText();
-            String[] words = text.split("\\s");      
-            // add twitter usernames starting with @ to result
-            for (String word : words) {
-                if (Pattern.matches("@([A-Za-z0-9_-]+)", word)) {
-                    word = word.substring(1).toLowerCase();
-                    usernamesMentioned.add(word);
-                }
-            }             
+            TweetTokenizer.forEachMentionId(tweet.getText(), id -> usernamesMentioned.add(Usernames.name(id)));
         }
+        PipelineMetrics.EXTRACT.stop(sample, tweets.size(), usernamesMentioned.size());
         return usernamesMentioned;   
     }
 }   
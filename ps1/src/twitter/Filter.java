@@ -5,8 +5,10 @@ package twitter;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 /**
  * Filter consists of methods that filter a list of tweets for those matching a
@@ -30,15 +32,30 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        StageMetrics.Sample sample = PipelineMetrics.FILTER.start();
         List<Tweet> writtenTweets = new ArrayList<>();
-        // check the tweets for username and add to result
-        for (Tweet tweet : tweets) {
-            String tweetAuthor = tweet.getAuthor();
-            
-            if (tweetAuthor.equalsIgnoreCase(username)) {
-                writtenTweets.add(tweet);
+        if (tweets instanceof TweetTable) {
+            // compare each distinct author with username once, then compare
+            // the tweets' author ids as ints
+            TweetTable table = (TweetTable) tweets;
+            boolean[] matches = new boolean[table.authorCount()];
+            for (int authorId = 0; authorId < matches.length; authorId++) {
+                matches[authorId] = table.authorName(authorId).equalsIgnoreCase(username);
+            }
+            for (int i = 0; i < table.size(); i++) {
+                if (matches[table.getAuthorId(i)]) {
+                    writtenTweets.add(table.get(i));
+                }
+            }
+        } else {
+            // check the tweets for username and add to result
+            for (Tweet tweet : tweets) {
+                if (tweet.getAuthor().equalsIgnoreCase(username)) {
+                    writtenTweets.add(tweet);
+                }
             }
         }
+        PipelineMetrics.FILTER.stop(sample, tweets.size(), writtenTweets.size());
         return writtenTweets;
     }
 
@@ -53,6 +70,7 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
+        StageMetrics.Sample sample = PipelineMetrics.FILTER.start();
         List<Tweet> tweetsInTimespan = new ArrayList<>();
         
         for (Tweet tweet : tweets) {
@@ -64,6 +82,7 @@ public class Filter {
                 tweetsInTimespan.add(tweet);
             }
         }
+        PipelineMetrics.FILTER.stop(sample, tweets.size(), tweetsInTimespan.size());
         return tweetsInTimespan;
     }
 
@@ -83,20 +102,43 @@ public class Filter {
      *         same order as in the input list.
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        StageMetrics.Sample sample = PipelineMetrics.FILTER.start();
         List<Tweet> tweetList = new ArrayList<>();
         
+        // tokenize each tweet text in place and look its words up in a hash
+        // table of the query words
+        WordMatcher matcher = new WordMatcher(words);
         for (Tweet tweet : tweets) {
-            // split the tweet text into a list of words
-            String text = tweet.getText().toLowerCase().replaceAll("[^\\w\\s]", "");   
-            List<String> textList = new ArrayList<>(Arrays.asList(text.split(" ")));   
-            // if word is in the tweet text, add to result
-            for (String word : words) {
-                if (textList.contains(word.toLowerCase())) {
-                    tweetList.add(tweet);
-                    break;
-                }
+            if (matcher.matches(tweet)) {
+                tweetList.add(tweet);
             }
         }
+        PipelineMetrics.FILTER.stop(sample, tweets.size(), tweetList.size());
+        return tweetList;
+    }
+
+    /**
+     * Find tweets that contain certain words, using all available processors.
+     * The list is split with its spliterator and the parts are scanned in
+     * parallel on the common fork/join pool.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return the same tweets as containing(tweets, words), in the same order
+     *         as in the input list.
+     */
+    public static List<Tweet> containingParallel(List<Tweet> tweets, List<String> words) {
+        StageMetrics.Sample sample = PipelineMetrics.FILTER.start();
+        // lists without random access split too unevenly to share the work
+        List<Tweet> randomAccessTweets = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        WordMatcher matcher = new WordMatcher(words);
+        List<Tweet> tweetList = StreamSupport.stream(randomAccessTweets.spliterator(), true)
+                .filter(matcher::matches)
+                .collect(Collectors.toList());
+        PipelineMetrics.FILTER.stop(sample, tweets.size(), tweetList.size());
         return tweetList;
     }
 
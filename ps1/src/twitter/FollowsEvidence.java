@@ -0,0 +1,150 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mutable.
+ * This class is internal to the rep of SocialNetwork.
+ * 
+ * Evidence of who follows whom, gathered from a collection of tweets: who
+ * each author @-mentions, and which authors used each hashtag.
+ */
+class FollowsEvidence {
+    
+    private final Map<String, Set<String>> mentions = new HashMap<>();
+    private final Map<String, Set<String>> hashtagUsers = new HashMap<>();
+    
+    // Abstraction function:
+    //   AF(mentions, hashtagUsers) = evidence from some tweets, where
+    //       mentions[a] is the set of users author a @-mentioned, and
+    //       hashtagUsers[h] is the set of authors who used hashtag h
+    //
+    // Representation invariant:
+    //   all usernames and hashtags are lowercase
+    //   no author is in their own mentions set
+    //   every user in a hashtagUsers set is a key of mentions
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   toFollowsGraph() copies the mention sets it returns.
+    
+    /**
+     * Add the evidence in a tweet.
+     * 
+     * @param tweet tweet to add
+     */
+    void add(Tweet tweet) {
+        int authorId = Usernames.id(tweet.getAuthor());
+        String author = Usernames.name(authorId);
+        Set<String> mentioned = mentions.computeIfAbsent(author, key -> new HashSet<>());
+        TweetTokenizer.forEachMentionId(tweet.getText(), id -> {
+            // ignore self-mention
+            if (id != authorId) {
+                mentioned.add(Usernames.name(id));
+            }
+        });
+        TweetTokenizer.forEachHashtag(tweet.getText(),
+                hashtag -> hashtagUsers.computeIfAbsent(hashtag, key -> new HashSet<>()).add(author));
+    }
+    
+    /**
+     * Add all the evidence in another FollowsEvidence.
+     * 
+     * @param that evidence to add, not modified
+     */
+    void addAll(FollowsEvidence that) {
+        union(mentions, that.mentions);
+        union(hashtagUsers, that.hashtagUsers);
+    }
+    
+    /*
+     * Add every entry of source to target, merging the sets of shared keys.
+     */
+    private static void union(Map<String, Set<String>> target, Map<String, Set<String>> source) {
+        for (Map.Entry<String, Set<String>> entry : source.entrySet()) {
+            Set<String> values = target.get(entry.getKey());
+            if (values == null) {
+                target.put(entry.getKey(), new HashSet<>(entry.getValue()));
+            } else {
+                values.addAll(entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Write this evidence to a stream, in the form readFrom() reads.
+     * 
+     * @param out stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        writeMap(out, mentions);
+        writeMap(out, hashtagUsers);
+    }
+    
+    /**
+     * Read evidence written by writeTo().
+     * 
+     * @param in stream to read from
+     * @return the evidence
+     * @throws IOException if the stream cannot be read or ends early
+     */
+    static FollowsEvidence readFrom(DataInputStream in) throws IOException {
+        FollowsEvidence evidence = new FollowsEvidence();
+        readMap(in, evidence.mentions);
+        readMap(in, evidence.hashtagUsers);
+        return evidence;
+    }
+    
+    private static void writeMap(DataOutputStream out, Map<String, Set<String>> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Set<String>> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String value : entry.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+    }
+    
+    private static void readMap(DataInputStream in, Map<String, Set<String>> map) throws IOException {
+        int keys = in.readInt();
+        for (int i = 0; i < keys; i++) {
+            String key = in.readUTF();
+            int values = in.readInt();
+            Set<String> set = new HashSet<>();
+            for (int j = 0; j < values; j++) {
+                set.add(in.readUTF());
+            }
+            map.put(key, set);
+        }
+    }
+    
+    /**
+     * Build a social network from this evidence.
+     * 
+     * @param maxUsersPerHashtag hashtags used by more than this many authors
+     *                           are ignored
+     * @return a new social network in which every author is a key, authors
+     *         follow the users they @-mentioned, and authors who share a
+     *         hashtag follow each other
+     */
+    Map<String, Set<String>> toFollowsGraph(int maxUsersPerHashtag) {
+        Map<String, Set<String>> socialNetwork = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : mentions.entrySet()) {
+            socialNetwork.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        // map users to each other by common hashtags
+        SocialNetwork.addHashtagEdges(socialNetwork, hashtagUsers, maxUsersPerHashtag);
+        return socialNetwork;
+    }
+}
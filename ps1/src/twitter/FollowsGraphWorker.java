@@ -0,0 +1,90 @@
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * A worker process for ShardedSocialNetwork. It gathers follows evidence from
+ * one shard of a corpus of tweets at a time.
+ *
+ * Protocol, one request per connection: the coordinator sends a shard of
+ * tweets in the TweetSnapshot format and shuts down its side of the
+ * connection. The worker replies with a status byte: STATUS_OK followed by the
+ * shard's follows evidence (the users each author @-mentioned, and the authors
+ * who used each hashtag), or STATUS_ERROR followed by a message written with
+ * DataOutputStream.writeUTF.
+ *
+ * Each connection is served on its own thread.
+ */
+public class FollowsGraphWorker {
+
+    /** Reply status for a shard that was processed. */
+    static final int STATUS_OK = 0;
+    /** Reply status for a request that failed. */
+    static final int STATUS_ERROR = 1;
+
+    /** First line printed by main(), followed by the port it listens on. */
+    static final String LISTENING = "listening on port ";
+
+    private FollowsGraphWorker() {
+        // static methods only
+    }
+
+    /**
+     * Run a worker that listens on the loopback interface until it is killed.
+     * Prints LISTENING and the port number on a line of standard output once
+     * it is ready for connections.
+     *
+     * @param args optional port to listen on; default 0, any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println(LISTENING + server.getLocalPort());
+            System.out.flush();
+            while (true) {
+                Socket socket = server.accept();
+                Thread handler = new Thread(() -> serve(socket), "follows-graph-worker");
+                handler.setDaemon(true);
+                handler.start();
+            }
+        }
+    }
+
+    /*
+     * Answer one request and close the connection.
+     */
+    private static void serve(Socket socket) {
+        try (Socket connection = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            FollowsEvidence evidence;
+            try {
+                evidence = gather(connection);
+            } catch (IOException | RuntimeException e) {
+                out.writeByte(STATUS_ERROR);
+                out.writeUTF(String.valueOf(e));
+                out.flush();
+                return;
+            }
+            out.writeByte(STATUS_OK);
+            evidence.writeTo(out);
+            out.flush();
+        } catch (IOException ioe) {
+            // the coordinator hung up; it will see the failure on its side
+        }
+    }
+
+    private static FollowsEvidence gather(Socket connection) throws IOException {
+        TweetTable tweets = TweetSnapshot.read(connection.getInputStream());
+        FollowsEvidence evidence = new FollowsEvidence();
+        for (Tweet tweet : tweets) {
+            evidence.add(tweet);
+        }
+        return evidence;
+    }
+}
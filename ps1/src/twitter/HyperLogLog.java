@@ -0,0 +1,155 @@
+package twitter;
+
+/**
+ * A mutable HyperLogLog sketch that estimates the number of distinct strings
+ * added to it, in memory that does not grow with the input.
+ *
+ * A sketch with 2^p registers uses 2^p bytes and has a relative standard
+ * error of about 1.04 / sqrt(2^p). Sketches with the same precision can be
+ * merged, for example to combine counts made on separate shards; the merge
+ * estimates the number of distinct strings added to either.
+ *
+ * Not threadsafe.
+ */
+public class HyperLogLog {
+
+    /** Smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+    /** Largest supported precision. */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    // Abstraction function:
+    //   AF(precision, registers) = a sketch of a set of strings S, where
+    //       registers[j] is the largest rank (position of the first 1 bit
+    //       after the index bits, counting from 1) among the hashes in S whose
+    //       top precision bits are j, or 0 if there are none
+    //
+    // Representation invariant:
+    //   MIN_PRECISION <= precision <= MAX_PRECISION
+    //   registers.length == 2^precision
+    //   0 <= registers[j] <= 64 - precision + 1
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final; registers is never returned.
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param precision log2 of the number of registers, requires
+     *                  MIN_PRECISION <= precision <= MAX_PRECISION
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("requires " + MIN_PRECISION + " <= precision <= " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        checkRep();
+    }
+
+    /**
+     * Make an empty sketch whose relative standard error is at most
+     * relativeError, or as close as MAX_PRECISION allows.
+     *
+     * @param relativeError requested relative standard error, requires
+     *                      0 < relativeError < 1
+     * @return a new empty sketch
+     */
+    public static HyperLogLog withRelativeError(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("requires 0 < relativeError < 1");
+        }
+        double registersNeeded = Math.pow(1.04 / relativeError, 2);
+        int precision = (int) Math.ceil(Math.log(registersNeeded) / Math.log(2));
+        return new HyperLogLog(Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision)));
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert MIN_PRECISION <= precision && precision <= MAX_PRECISION;
+        assert registers.length == 1 << precision;
+    }
+
+    /**
+     * @return log2 of the number of registers of this sketch
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Add a string to the set this sketch summarizes.
+     *
+     * @param s string to add
+     */
+    public void add(String s) {
+        long hash = StringHash.hash64(s);
+        int index = (int) (hash >>> (64 - precision));
+        // rank of the remaining bits, with a sentinel 1 so rank <= 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        int rank = Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Add every string added to another sketch to this one.
+     *
+     * @param that sketch to merge in, not modified; requires the same
+     *             precision as this sketch
+     */
+    public void merge(HyperLogLog that) {
+        if (that.precision != precision) {
+            throw new IllegalArgumentException("cannot merge sketches of precision " + precision
+                    + " and " + that.precision);
+        }
+        for (int j = 0; j < registers.length; j++) {
+            if (that.registers[j] > registers[j]) {
+                registers[j] = that.registers[j];
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * @return an estimate of the number of distinct strings added to this
+     *         sketch and to sketches merged into it
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // small range correction: linear counting
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /*
+     * Bias correction constant of the HyperLogLog estimator for m registers.
+     */
+    private static double alpha(int m) {
+        switch (m) {
+        case 16:
+            return 0.673;
+        case 32:
+            return 0.697;
+        case 64:
+            return 0.709;
+        default:
+            return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package twitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A mutable social network (as defined in SocialNetwork) guessed from a
+ * changing collection of tweets.
+ *
+ * Tweets are added and removed in batches: mention edges, hashtag
+ * co-occurrence edges and follower counts are updated in place, in time
+ * proportional to the batch rather than to the collection. After any sequence
+ * of batches the network is the same as
+ * SocialNetwork.guessFollowsGraph(tweets, maxUsersPerHashtag) over the tweets
+ * added and not yet removed.
+ *
+ * Not threadsafe; callers must not add tweets and query concurrently.
+ */
+public class IncrementalSocialNetwork {
+
+    private final int maxUsersPerHashtag;
+    private final Map<String, Map<String, Evidence>> follows = new HashMap<>();
+    private final Map<String, int[]> authorTweets = new HashMap<>();
+    private final Map<String, Map<String, int[]>> hashtagUsers = new HashMap<>();
+    private final Map<String, int[]> followerCounts = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(maxUsersPerHashtag, follows, authorTweets, hashtagUsers,
+    //      followerCounts) =
+    //       the social network guessed from the tweets added and not removed,
+    //       in which user a follows user b iff b is a key of follows[a];
+    //       follows[a][b] records why: how many of a's tweets @-mention b, and
+    //       how many hashtags with at most maxUsersPerHashtag users they share
+    //
+    // Representation invariant:
+    //   all usernames and hashtags are lowercase
+    //   every count stored in an int[] or Evidence is positive
+    //   every Evidence in follows has mentions > 0 || sharedHashtags > 0
+    //   no user is a key of their own follows map
+    //   the keys of follows are the keys of authorTweets
+    //   hashtagUsers[h][a] == number of uses of h in a's tweets, and every
+    //     user in hashtagUsers[h] is a key of authorTweets
+    //   for every hashtag h and distinct users a, b in hashtagUsers[h],
+    //     if hashtagUsers[h].size() <= maxUsersPerHashtag then follows[a][b]
+    //     counts h among its shared hashtags
+    //   followerCounts[u][0] == number of users a with u a key of follows[a],
+    //     and followerCounts has a key for exactly the users who are keys of
+    //     follows or have followers
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   getFollowsGraph() returns a fresh map of fresh sets, and influencers()
+    //   a fresh list of immutable Strings.
+
+    /**
+     * Per-edge record of the evidence that one user follows another.
+     */
+    private static class Evidence {
+        private int mentions;
+        private int sharedHashtags;
+
+        boolean isEmpty() {
+            return mentions == 0 && sharedHashtags == 0;
+        }
+    }
+
+    /**
+     * Make an empty network that uses the default hashtag popularity limit,
+     * SocialNetwork.DEFAULT_MAX_USERS_PER_HASHTAG.
+     */
+    public IncrementalSocialNetwork() {
+        this(SocialNetwork.DEFAULT_MAX_USERS_PER_HASHTAG);
+    }
+
+    /**
+     * Make an empty network.
+     *
+     * @param maxUsersPerHashtag hashtags used by more than this many authors
+     *                           are not evidence of following
+     */
+    public IncrementalSocialNetwork(int maxUsersPerHashtag) {
+        this.maxUsersPerHashtag = maxUsersPerHashtag;
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert follows != null;
+        assert hashtagUsers != null;
+        assert authorTweets.size() == follows.size();
+        assert followerCounts.size() >= follows.size();
+    }
+
+    /**
+     * Add a batch of tweets to the evidence.
+     *
+     * @param tweets new tweets, not modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+        checkRep();
+    }
+
+    /**
+     * Add one tweet to the evidence.
+     *
+     * @param tweet new tweet
+     */
+    public void add(Tweet tweet) {
+        String author = tweet.getAuthor().toLowerCase();
+        if (authorTweets.computeIfAbsent(author, key -> new int[1])[0]++ == 0) {
+            follows.put(author, new HashMap<>());
+            followerCounts.computeIfAbsent(author, key -> new int[1]);
+        }
+
+        TweetTokenizer.forEachMention(tweet.getText(), mentioned -> {
+            // ignore self-mention
+            if (!mentioned.equals(author)) {
+                evidence(author, mentioned).mentions++;
+            }
+        });
+        TweetTokenizer.forEachHashtag(tweet.getText(), hashtag -> addHashtagUser(hashtag, author));
+    }
+
+    /**
+     * Remove a batch of tweets from the evidence.
+     *
+     * @param tweets tweets to remove, not modified by this method; requires
+     *               that each was added and not yet removed
+     */
+    public void removeAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            remove(tweet);
+        }
+        checkRep();
+    }
+
+    /**
+     * Remove one tweet from the evidence.
+     *
+     * @param tweet tweet to remove; requires that it was added and not yet
+     *              removed
+     */
+    public void remove(Tweet tweet) {
+        String author = tweet.getAuthor().toLowerCase();
+        if (!authorTweets.containsKey(author)) {
+            throw new IllegalArgumentException("no tweets by " + author + " to remove");
+        }
+
+        TweetTokenizer.forEachMention(tweet.getText(), mentioned -> {
+            if (!mentioned.equals(author)) {
+                Evidence evidence = follows.get(author).get(mentioned);
+                evidence.mentions--;
+                removeIfEmpty(author, mentioned, evidence);
+            }
+        });
+        TweetTokenizer.forEachHashtag(tweet.getText(), hashtag -> removeHashtagUser(hashtag, author));
+
+        if (--authorTweets.get(author)[0] == 0) {
+            // with no tweets left, the author has no outgoing edges either
+            authorTweets.remove(author);
+            follows.remove(author);
+            if (followerCounts.get(author)[0] == 0) {
+                followerCounts.remove(author);
+            }
+        }
+    }
+
+    /*
+     * Record that author used hashtag, linking author with the other users of
+     * the hashtag, or unlinking them all if the hashtag just became too popular.
+     */
+    private void addHashtagUser(String hashtag, String author) {
+        Map<String, int[]> users = hashtagUsers.computeIfAbsent(hashtag, key -> new HashMap<>());
+        if (users.computeIfAbsent(author, key -> new int[1])[0]++ > 0) {
+            return;
+        }
+        if (users.size() <= maxUsersPerHashtag) {
+            for (String other : users.keySet()) {
+                if (!other.equals(author)) {
+                    evidence(author, other).sharedHashtags++;
+                    evidence(other, author).sharedHashtags++;
+                }
+            }
+        } else if (users.size() == maxUsersPerHashtag + 1) {
+            // the earlier users were linked through this hashtag; undo that
+            for (String user : users.keySet()) {
+                for (String other : users.keySet()) {
+                    if (!user.equals(author) && !other.equals(author) && !user.equals(other)) {
+                        removeSharedHashtag(user, other);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Record that author used hashtag once less, unlinking author from the
+     * other users of the hashtag if that was the last use, or linking them all
+     * if the hashtag just stopped being too popular.
+     */
+    private void removeHashtagUser(String hashtag, String author) {
+        Map<String, int[]> users = hashtagUsers.get(hashtag);
+        if (--users.get(author)[0] > 0) {
+            return;
+        }
+        users.remove(author);
+        if (users.size() < maxUsersPerHashtag) {
+            for (String other : users.keySet()) {
+                removeSharedHashtag(author, other);
+                removeSharedHashtag(other, author);
+            }
+        } else if (users.size() == maxUsersPerHashtag) {
+            // the remaining users are no longer too many to be linked
+            for (String user : users.keySet()) {
+                for (String other : users.keySet()) {
+                    if (!user.equals(other)) {
+                        evidence(user, other).sharedHashtags++;
+                    }
+                }
+            }
+        }
+        if (users.isEmpty()) {
+            hashtagUsers.remove(hashtag);
+        }
+    }
+
+    /*
+     * Get the evidence that user follows followed, adding the edge if needed.
+     * Requires that user is an author.
+     */
+    private Evidence evidence(String user, String followed) {
+        Map<String, Evidence> edges = follows.get(user);
+        Evidence evidence = edges.get(followed);
+        if (evidence == null) {
+            evidence = new Evidence();
+            edges.put(followed, evidence);
+            followerCounts.computeIfAbsent(followed, key -> new int[1])[0]++;
+        }
+        return evidence;
+    }
+
+    /*
+     * Withdraw one shared hashtag from the evidence that user follows followed,
+     * removing the edge if nothing else supports it.
+     */
+    private void removeSharedHashtag(String user, String followed) {
+        Evidence evidence = follows.get(user).get(followed);
+        evidence.sharedHashtags--;
+        removeIfEmpty(user, followed, evidence);
+    }
+
+    /*
+     * Remove the edge from user to followed if nothing supports it any more,
+     * and forget followed if it is then neither an author nor followed.
+     */
+    private void removeIfEmpty(String user, String followed, Evidence evidence) {
+        if (!evidence.isEmpty()) {
+            return;
+        }
+        follows.get(user).remove(followed);
+        if (--followerCounts.get(followed)[0] == 0 && !follows.containsKey(followed)) {
+            followerCounts.remove(followed);
+        }
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users in this network who follow username
+     */
+    public int followerCount(String username) {
+        int[] count = followerCounts.get(username.toLowerCase());
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Find the k people in this network who have the most followers.
+     * Takes O(n log k) time for n users.
+     *
+     * @param k number of users to return, requires k >= 0
+     * @return the same list as SocialNetwork.influencers(getFollowsGraph(), k)
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        return SocialNetwork.rankByFollowers(followerCounts, k);
+    }
+
+    /**
+     * @return a new social network (as defined in SocialNetwork) equal to
+     *         SocialNetwork.guessFollowsGraph of every tweet added and not
+     *         removed, with this network's hashtag popularity limit
+     */
+    public Map<String, Set<String>> getFollowsGraph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (Map.Entry<String, Map<String, Evidence>> entry : follows.entrySet()) {
+            graph.put(entry.getKey(), new HashSet<>(entry.getValue().keySet()));
+        }
+        return graph;
+    }
+}
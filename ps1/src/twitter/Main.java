@@ -66,8 +66,8 @@ public class Main {
         
         // print the top-N influencers
         final int count = 10;
-        final List<String> influencers = SocialNetwork.influencers(followsGraph);
-        for (String username : influencers.subList(0, Math.min(count, influencers.size()))) {
+        final List<String> influencers = SocialNetwork.influencers(followsGraph, count);
+        for (String username : influencers) {
             System.out.println(username);
         }
     }
@@ -0,0 +1,240 @@
+package twitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.json.JsonException;
+
+/**
+ * Read tweets from a local file holding a JSON array of tweets, in the same
+ * format TweetReader accepts from the web.
+ *
+ * The file is memory-mapped and cut into segments at tweet boundaries, and the
+ * segments are parsed in parallel with StreamingTweetReader.
+ */
+public class MappedTweetReader {
+
+    // Thread safety argument:
+    //   each segment is parsed by one task over its own read-only slice of
+    //   the mapped file and its own StreamingTweetReader, and returns a fresh
+    //   list; tasks share no mutable state. The lists are only concatenated
+    //   by the calling thread after Future.get(), which happens-after the task.
+
+    /** Target segment size small enough that a segment plus one more tweet fits in a MappedByteBuffer. */
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE / 2;
+    /** Size of the windows mapped while looking for tweet boundaries. */
+    private static final long SCAN_WINDOW_SIZE = 1L << 28;
+
+    /**
+     * Read the tweets in a file, using one thread per available processor.
+     *
+     * @param file path of a file containing a JSON array of tweets
+     * @return the tweets in the file, in the same order as in the file
+     * @throws IOException if the file cannot be read
+     * @throws JsonException if the file is not a JSON array of tweets
+     */
+    public static List<Tweet> readTweetsFromFile(Path file) throws IOException {
+        return readTweetsFromFile(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Read the tweets in a file.
+     *
+     * @param file path of a file containing a JSON array of tweets
+     * @param threads number of threads to parse with, requires threads > 0
+     * @return the tweets in the file, in the same order as in the file
+     * @throws IOException if the file cannot be read
+     * @throws JsonException if the file is not a JSON array of tweets
+     */
+    public static List<Tweet> readTweetsFromFile(Path file, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("requires threads > 0");
+        }
+        StageMetrics.Sample sample = PipelineMetrics.READ.start();
+        List<Tweet> tweets = readSegments(file, threads);
+        PipelineMetrics.READ.stop(sample, tweets.size(), tweets.size());
+        return tweets;
+    }
+
+    /*
+     * Read the tweets in a file with the given number of threads.
+     */
+    private static List<Tweet> readSegments(Path file, int threads) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int segmentCount = (int) Math.max(threads, (size + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE);
+            List<long[]> segments = findSegments(channel, segmentCount);
+
+            if (segments.size() <= 1 || threads == 1) {
+                List<Tweet> tweets = new ArrayList<>();
+                for (long[] segment : segments) {
+                    tweets.addAll(parseSegment(channel, segment[0], segment[1]));
+                }
+                return tweets;
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, segments.size()));
+            try {
+                List<Future<List<Tweet>>> parsed = new ArrayList<>();
+                for (long[] segment : segments) {
+                    parsed.add(executor.submit(() -> parseSegment(channel, segment[0], segment[1])));
+                }
+                List<Tweet> tweets = new ArrayList<>();
+                for (Future<List<Tweet>> future : parsed) {
+                    tweets.addAll(future.get());
+                }
+                return tweets;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ie);
+            } catch (ExecutionException ee) {
+                Throwable cause = ee.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /*
+     * Scan the file for the top-level tweet objects and group them into about
+     * segmentCount runs of roughly equal size.
+     * Only tracks nesting depth and string literals, so it is much cheaper than
+     * parsing.
+     *
+     * @return list of {start, end} byte offsets; each range holds one or more
+     *         complete tweet objects separated by commas
+     */
+    private static List<long[]> findSegments(FileChannel channel, int segmentCount) throws IOException {
+        long size = channel.size();
+        long targetSize = Math.max(1, size / segmentCount);
+        List<long[]> segments = new ArrayList<>();
+
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long segmentStart = -1;
+        long lastEnd = -1;
+
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW_SIZE) {
+            long windowSize = Math.min(SCAN_WINDOW_SIZE, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            for (int i = 0; i < windowSize; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    if (depth == 0 && b != '[') {
+                        throw new JsonException("expected a JSON array of tweets");
+                    } else if (depth == 1 && b == '{' && segmentStart < 0) {
+                        segmentStart = windowStart + i;
+                    }
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (depth == 1) {
+                        if (segmentStart < 0) {
+                            throw new JsonException("expected a tweet object near offset " + (windowStart + i));
+                        }
+                        // just closed a tweet
+                        lastEnd = windowStart + i + 1;
+                        if (lastEnd - segmentStart >= targetSize) {
+                            segments.add(new long[] { segmentStart, lastEnd });
+                            segmentStart = -1;
+                        }
+                    } else if (depth == 0) {
+                        if (segmentStart >= 0) {
+                            segments.add(new long[] { segmentStart, lastEnd });
+                        }
+                        return segments;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        throw new JsonException("expected a JSON array of tweets");
+    }
+
+    /*
+     * Parse the tweets in one segment of the file.
+     */
+    private static List<Tweet> parseSegment(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        InputStream json = new SequenceInputStream(new SequenceInputStream(
+                new ByteArrayInputStream(new byte[] { '[' }),
+                new ByteBufferInputStream(segment)),
+                new ByteArrayInputStream(new byte[] { ']' }));
+        List<Tweet> tweets = new ArrayList<>();
+        StreamingTweetReader.readTweets(new InputStreamReader(json, StandardCharsets.UTF_8), tweets::add);
+        return tweets;
+    }
+
+    /**
+     * An InputStream that reads the remaining bytes of a ByteBuffer.
+     * Not threadsafe; confined to the thread that parses its segment.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override public int available() {
+            return buffer.remaining();
+        }
+    }
+}
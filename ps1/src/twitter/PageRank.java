@@ -0,0 +1,145 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Ranks users of a social network by PageRank: a user is influential if they
+ * are followed by influential users, not merely by many users.
+ *
+ * Each user passes their rank in equal shares to the users they follow; users
+ * who follow nobody share theirs with everyone. With probability 1 - damping a
+ * user's rank is instead spread evenly over all users. Iterates over a
+ * CsrFollowsGraph until the total change in rank in one iteration falls below
+ * a tolerance, computing each iteration's ranks in parallel on the common
+ * fork/join pool.
+ */
+public class PageRank {
+
+    /** Damping factor of the original PageRank paper. */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** Default convergence threshold on the L1 change in rank per iteration. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    /** Default limit on the number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** Graphs with fewer users than this are ranked on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private PageRank() {
+        // static methods only
+    }
+
+    /**
+     * Compute the PageRank of every user with the default parameters.
+     *
+     * @param graph social network to rank
+     * @return ranks indexed by user id, nonnegative and summing to 1 (or empty
+     *         for an empty graph)
+     */
+    public static double[] ranks(CsrFollowsGraph graph) {
+        return ranks(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Compute the PageRank of every user.
+     *
+     * @param graph social network to rank
+     * @param damping probability of following an edge rather than jumping to a
+     *                random user, requires 0 <= damping < 1
+     * @param tolerance stop once the sum of the absolute changes in rank in one
+     *                  iteration is at most this, requires tolerance >= 0
+     * @param maxIterations stop after this many iterations even if not
+     *                      converged, requires maxIterations >= 0
+     * @return ranks indexed by user id, nonnegative and summing to 1 (or empty
+     *         for an empty graph)
+     */
+    public static double[] ranks(CsrFollowsGraph graph, double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1) || tolerance < 0 || maxIterations < 0) {
+            throw new IllegalArgumentException("requires 0 <= damping < 1, tolerance >= 0, maxIterations >= 0");
+        }
+        int n = graph.vertexCount();
+        int[] offsets = graph.followerOffsets();
+        int[] followers = graph.followerIds();
+        int[] followsCounts = new int[n];
+        for (int u = 0; u < n; u++) {
+            followsCounts[u] = graph.followsCount(u);
+        }
+        boolean parallel = n >= PARALLEL_THRESHOLD;
+
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        double[] next = new double[n];
+        double[] share = new double[n];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            // each user's share of rank for each user they follow
+            double[] current = rank;
+            range(n, parallel).forEach(u -> share[u] = followsCounts[u] == 0 ? 0 : current[u] / followsCounts[u]);
+            double dangling = range(n, parallel).filter(u -> followsCounts[u] == 0).mapToDouble(u -> current[u]).sum();
+            double base = (1 - damping) / n + damping * dangling / n;
+
+            // pull: each user's new rank depends only on their followers
+            double[] updated = next;
+            range(n, parallel).forEach(v -> {
+                double sum = 0;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    sum += share[followers[i]];
+                }
+                updated[v] = base + damping * sum;
+            });
+            double change = range(n, parallel).mapToDouble(v -> Math.abs(updated[v] - current[v])).sum();
+
+            next = rank;
+            rank = updated;
+            if (change <= tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    private static IntStream range(int n, boolean parallel) {
+        IntStream range = IntStream.range(0, n);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * Find the k most influential people in a social network by PageRank,
+     * with the default parameters.
+     *
+     * @param followsGraph a social network (as defined in SocialNetwork)
+     * @param k number of users to return, requires k >= 0
+     * @return up to k lowercase usernames of the users of followsGraph, in
+     *         descending order of PageRank, breaking ties alphabetically
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        CsrFollowsGraph graph = new CsrFollowsGraph(followsGraph);
+        double[] rank = ranks(graph);
+
+        // ids are in alphabetical order, so ties break on id;
+        // k may exceed the number of users, so never size the heap by k alone
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(k, graph.vertexCount()) + 1,
+                (a, b) -> rank[a] != rank[b] ? Double.compare(rank[a], rank[b]) : Integer.compare(b, a));
+        for (int u = 0; u < graph.vertexCount() && k > 0; u++) {
+            best.add(u);
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<String> influencers = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            influencers.add(graph.name(best.poll()));
+        }
+        Collections.reverse(influencers);
+        return influencers;
+    }
+}
@@ -0,0 +1,247 @@
+package twitter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A coordinator that guesses a follows graph (as SocialNetwork does) with the
+ * help of FollowsGraphWorker processes.
+ *
+ * Tweets are partitioned among the workers by a hash of their lowercased
+ * author, so each author's tweets go to one worker. Each worker gathers its
+ * shard's evidence, the users each author @-mentioned and the authors who used
+ * each hashtag, and sends it back. The coordinator merges the evidence and
+ * adds hashtag edges, which need every shard's users of a hashtag to apply the
+ * popularity limit, so the result is exactly SocialNetwork.guessFollowsGraph.
+ *
+ * Workers may run anywhere reachable by socket; startLocal() runs them as
+ * child processes of this JVM, for using several cores on one machine.
+ *
+ * Only the CPU work of scanning tweets is sharded, not the memory: the
+ * coordinator takes the whole corpus as a materialized list, holds every
+ * shard while it is sent, and merges all the evidence into one full follows
+ * graph in its own JVM, from which influencers() counts followers. So the
+ * corpus and the graph must still fit in the coordinator's heap. Merging
+ * compact per-worker results instead is not exact here: hashtag edges cross
+ * shards and depend on each hashtag's global user count, so per-worker
+ * follower counts cannot simply be added.
+ *
+ * Threadsafe: queries may run concurrently, and each opens its own
+ * connections.
+ */
+public class ShardedSocialNetwork implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final List<InetSocketAddress> workers;
+    private final List<Process> processes;
+
+    // Abstraction function:
+    //   AF(workers, processes) = a coordinator for the workers listening at
+    //       the addresses in workers, of which the ones it started itself are
+    //       the processes in processes
+    //
+    // Representation invariant:
+    //   workers is nonempty
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final and hold unmodifiable copies;
+    //   InetSocketAddress is immutable, and processes are never returned.
+
+    /**
+     * Make a coordinator for workers that are already running.
+     *
+     * @param workers addresses of FollowsGraphWorker processes, requires at
+     *                least one; not modified by this constructor
+     */
+    public ShardedSocialNetwork(List<InetSocketAddress> workers) {
+        this(workers, Collections.emptyList());
+    }
+
+    private ShardedSocialNetwork(List<InetSocketAddress> workers, List<Process> processes) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("requires at least one worker");
+        }
+        this.workers = Collections.unmodifiableList(new ArrayList<>(workers));
+        this.processes = Collections.unmodifiableList(new ArrayList<>(processes));
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert !workers.isEmpty();
+    }
+
+    /**
+     * Start FollowsGraphWorker processes on this machine, with this JVM's
+     * java executable and class path, and make a coordinator for them. The
+     * processes are stopped by close().
+     *
+     * @param count number of workers, requires count > 0
+     * @return a coordinator for the new workers
+     * @throws IOException if a worker cannot be started
+     */
+    public static ShardedSocialNetwork startLocal(int count) throws IOException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("requires count > 0");
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                Process process = new ProcessBuilder(java, "-ea", "-cp", System.getProperty("java.class.path"),
+                        FollowsGraphWorker.class.getName())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+                BufferedReader out = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = out.readLine();
+                if (line == null || !line.startsWith(FollowsGraphWorker.LISTENING)) {
+                    throw new IOException("worker did not start: " + line);
+                }
+                int port = Integer.parseInt(line.substring(FollowsGraphWorker.LISTENING.length()).trim());
+                addresses.add(new InetSocketAddress("localhost", port));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            throw e;
+        }
+        return new ShardedSocialNetwork(addresses, processes);
+    }
+
+    /**
+     * @return number of workers the tweets are sharded across
+     */
+    public int workerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Guess who might follow whom, using the workers.
+     *
+     * @param tweets a list of tweets providing the evidence, not modified by
+     *               this method
+     * @param maxUsersPerHashtag hashtags used by more than this many authors
+     *                           are ignored
+     * @return the same social network as
+     *         SocialNetwork.guessFollowsGraph(tweets, maxUsersPerHashtag)
+     * @throws IOException if a worker cannot be reached or fails
+     */
+    public Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets, int maxUsersPerHashtag) throws IOException {
+        return gatherEvidence(tweets).toFollowsGraph(maxUsersPerHashtag);
+    }
+
+    /**
+     * Find the people with the most followers in the social network guessed
+     * from tweets, using the workers.
+     *
+     * @param tweets a list of tweets providing the evidence, not modified by
+     *               this method
+     * @param k number of users to return, requires k >= 0
+     * @return the same list as SocialNetwork.influencers(
+     *         SocialNetwork.guessFollowsGraph(tweets), k); counted on the full
+     *         merged graph in this JVM, as described above
+     * @throws IOException if a worker cannot be reached or fails
+     */
+    public List<String> influencers(List<Tweet> tweets, int k) throws IOException {
+        return SocialNetwork.influencers(
+                guessFollowsGraph(tweets, SocialNetwork.DEFAULT_MAX_USERS_PER_HASHTAG), k);
+    }
+
+    /*
+     * Send each worker its shard, in parallel, and merge their evidence.
+     */
+    private FollowsEvidence gatherEvidence(List<Tweet> tweets) throws IOException {
+        List<List<Tweet>> shards = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (Tweet tweet : tweets) {
+            shards.get(shardOf(tweet.getAuthor(), workers.size())).add(tweet);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<FollowsEvidence>> replies = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++) {
+                InetSocketAddress worker = workers.get(i);
+                List<Tweet> shard = shards.get(i);
+                replies.add(pool.submit(() -> request(worker, shard)));
+            }
+            FollowsEvidence evidence = new FollowsEvidence();
+            for (Future<FollowsEvidence> reply : replies) {
+                evidence.addAll(reply.get());
+            }
+            return evidence;
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            }
+            throw new IOException("worker request failed", ee.getCause());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for workers", ie);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param author a Twitter username
+     * @param shards number of shards, requires shards > 0
+     * @return the shard, in [0, shards), that tweets by author belong to
+     */
+    static int shardOf(String author, int shards) {
+        return Math.floorMod(author.toLowerCase().hashCode(), shards);
+    }
+
+    /*
+     * Send one shard to one worker and read back its evidence.
+     */
+    private static FollowsEvidence request(InetSocketAddress worker, List<Tweet> shard) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(worker, CONNECT_TIMEOUT_MILLIS);
+            // write() buffers and flushes the stream itself
+            TweetSnapshot.write(shard, socket.getOutputStream());
+            socket.shutdownOutput();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            int status = in.readUnsignedByte();
+            if (status != FollowsGraphWorker.STATUS_OK) {
+                throw new IOException("worker " + worker + " failed: " + in.readUTF());
+            }
+            return FollowsEvidence.readFrom(in);
+        }
+    }
+
+    /**
+     * Stop the worker processes started by startLocal(), if any. Workers this
+     * coordinator did not start are left running.
+     */
+    @Override public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+}
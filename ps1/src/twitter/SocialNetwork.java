@@ -4,14 +4,16 @@
 package twitter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * SocialNetwork provides methods that operate on a social network.
@@ -31,6 +33,14 @@ import java.util.regex.Pattern;
  */
 public class SocialNetwork {
 
+    /**
+     * Default limit on the number of users a hashtag may be shared by and
+     * still count as evidence that they follow each other. Tags used by more
+     * people than this are too popular to say anything about who follows whom,
+     * and would add a follows edge between every pair of their users.
+     */
+    public static final int DEFAULT_MAX_USERS_PER_HASHTAG = 1000;
+
     /**
      * Guess who might follow whom, from evidence found in tweets.
      * 
@@ -47,80 +57,129 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        Map<String, Set<String>> socialNetwork = new HashMap<>();
-        Map<String, Set<String>> userHashtags = new HashMap<>();
+        return guessFollowsGraph(tweets, DEFAULT_MAX_USERS_PER_HASHTAG);
+    }
+
+    /**
+     * Guess who might follow whom, from evidence found in tweets.
+     * Ernie follows Bert if Ernie @-mentions Bert, or if Ernie and Bert both
+     * used a hashtag that at most maxUsersPerHashtag users used.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param maxUsersPerHashtag
+     *            hashtags used by more than this many authors are ignored
+     * @return a social network (as defined above), as for guessFollowsGraph(tweets)
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets, int maxUsersPerHashtag) {
+        StageMetrics.Sample sample = PipelineMetrics.FOLLOWS_GRAPH.start();
+        FollowsEvidence evidence = new FollowsEvidence();
+        for (Tweet tweet : tweets) {
+            evidence.add(tweet);
+        }
+        Map<String, Set<String>> followsGraph = evidence.toFollowsGraph(maxUsersPerHashtag);
+        PipelineMetrics.FOLLOWS_GRAPH.stop(sample, tweets.size(), followsGraph.size());
+        return followsGraph;
+    }
+
+    /**
+     * Guess who might follow whom, from evidence found in tweets, using all
+     * available processors.
+     * The tweets are split into partitions whose mentions and hashtags are
+     * gathered in parallel and merged with a fork/join reduction.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param maxUsersPerHashtag
+     *            hashtags used by more than this many authors are ignored
+     * @return the same social network as guessFollowsGraph(tweets, maxUsersPerHashtag)
+     */
+    public static Map<String, Set<String>> guessFollowsGraphParallel(List<Tweet> tweets, int maxUsersPerHashtag) {
+        StageMetrics.Sample sample = PipelineMetrics.FOLLOWS_GRAPH.start();
+        List<Tweet> randomAccessTweets = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        FollowsEvidence evidence = ForkJoinPool.commonPool().invoke(
+                new GatherEvidenceTask(randomAccessTweets, 0, randomAccessTweets.size()));
+        Map<String, Set<String>> followsGraph = evidence.toFollowsGraph(maxUsersPerHashtag);
+        PipelineMetrics.FOLLOWS_GRAPH.stop(sample, tweets.size(), followsGraph.size());
+        return followsGraph;
+    }
+
+    /**
+     * Gathers the follows evidence in a range of a list of tweets, splitting
+     * the range in half until it is small enough to scan directly.
+     */
+    private static class GatherEvidenceTask extends RecursiveTask<FollowsEvidence> {
         
-        if (tweets.isEmpty()) {
-            return socialNetwork;
-        } else {
-            // map users by mentions "@" in tweets
-            for (Tweet tweet : tweets) {
-                String author = tweet.getAuthor().toLowerCase();
-                Set<String> mentionedUsernames = Extract.getMentionedUsers(Arrays.asList(tweet));
-                // remove self-mention
-                if (mentionedUsernames.contains(author)) {
-                    mentionedUsernames.remove(author);
-                }
-                if (socialNetwork.containsKey(author)) {
-                    socialNetwork.get(author).addAll(mentionedUsernames);
-                } else {
-                    socialNetwork.put(author, mentionedUsernames);
-                }
-                
-                // map hashtags to user
-                Set<String> hashtags = getHashtags(tweet.getText());
-                if (userHashtags.containsKey(author)) {
-                    userHashtags.get(author).addAll(hashtags);
-                } else {
-                    userHashtags.put(author, hashtags);
-                }  
-             }
-            // map users to each other by common hashtags
-            for (String user1 : userHashtags.keySet()) {
-                for (String user2 : userHashtags.keySet()) {
-                    if (!user1.equals(user2)) {
-                        Set<String> user1Hashtags = new HashSet<>(userHashtags.get(user1));
-                        if (user1Hashtags.removeAll(userHashtags.get(user2))) {
-                            if (socialNetwork.containsKey(user1)) {
-                                socialNetwork.get(user1).add(user2);
-                            } else {
-                                socialNetwork.put(user1, new HashSet<String>(Arrays.asList(user2)));
-                            }
-                            if (socialNetwork.containsKey(user2)) {
-                                socialNetwork.get(user2).add(user1);
-                            } else {
-                                socialNetwork.put(user2, new HashSet<String>(Arrays.asList(user2)));
-                            }
-                        }
-                    }
+        private static final long serialVersionUID = 1L;
+        /** Ranges with at most this many tweets are scanned without splitting. */
+        private static final int PARTITION_SIZE = 2048;
+        
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+        
+        // Thread safety argument:
+        //   tweets is only read, and holds immutable Tweets;
+        //   each task builds its own FollowsEvidence, and a parent only merges
+        //   its children's evidence after join(), which happens-after the child
+        //   finished writing it.
+        
+        GatherEvidenceTask(List<Tweet> tweets, int from, int to) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override protected FollowsEvidence compute() {
+            if (to - from <= PARTITION_SIZE) {
+                FollowsEvidence evidence = new FollowsEvidence();
+                for (int i = from; i < to; i++) {
+                    evidence.add(tweets.get(i));
                 }
+                return evidence;
             }
-        }   
-        return socialNetwork;
+            int middle = (from + to) >>> 1;
+            GatherEvidenceTask left = new GatherEvidenceTask(tweets, from, middle);
+            left.fork();
+            FollowsEvidence right = new GatherEvidenceTask(tweets, middle, to).compute();
+            FollowsEvidence evidence = left.join();
+            evidence.addAll(right);
+            return evidence;
+        }
     }
-        
-    
+
     /**
-     * Finds hashtags in a String
+     * Make every pair of users who share a hashtag follow each other.
+     * Takes time proportional to the number of (hashtag, user, user) triples,
+     * not to the square of the number of users.
      * 
-     * @param text
-     *            tweet text
-     * @return Set of hashtags in tweet text
+     * @param socialNetwork
+     *            social network to add the follows edges to; modified
+     * @param hashtagUsers
+     *            map from each hashtag to the lowercase users who used it
+     * @param maxUsersPerHashtag
+     *            hashtags used by more than this many users are ignored
      */
-    private static Set<String> getHashtags(String text){
-        Set<String> hashtags = new HashSet<>();
-        String[] words = text.split("\\s");
-        
-        for (String word : words) {
-            if (Pattern.matches("#([A-Za-z0-9_-]+)", word)) {
-                word = word.substring(1).toLowerCase();
-                hashtags.add(word);
+    static void addHashtagEdges(Map<String, Set<String>> socialNetwork,
+                                Map<String, Set<String>> hashtagUsers, int maxUsersPerHashtag) {
+        for (Set<String> users : hashtagUsers.values()) {
+            if (users.size() < 2 || users.size() > maxUsersPerHashtag) {
+                continue;
+            }
+            for (String user : users) {
+                Set<String> follows = socialNetwork.computeIfAbsent(user, key -> new HashSet<>());
+                for (String other : users) {
+                    if (!other.equals(user)) {
+                        follows.add(other);
+                    }
+                }
             }
         }
-        return hashtags;
     }
-
-
+        
+    
     /**
      * Find the people in a social network who have the greatest influence, in
      * the sense that they have the most followers.
@@ -131,37 +190,86 @@ public class SocialNetwork {
      *         descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
-        List<String> influenceList = new ArrayList<>();
-        Map<String, Integer> influencers = new HashMap<>();
+        return influencers(followsGraph, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find the k people in a social network who have the most followers.
+     * Counts followers in one pass and keeps the best k in a bounded heap, so
+     * it takes O(n log k) time for n users; if k is at least n, all users are
+     * sorted instead.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @return the min(k, n) distinct lowercase Twitter usernames in followsGraph
+     *         with the most followers, in descending order of follower count;
+     *         users with the same count are in alphabetical order.
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        StageMetrics.Sample sample = PipelineMetrics.INFLUENCERS.start();
+        Map<String, int[]> followerCounts = new HashMap<>();
         
-        // add followed users to map and count their followers
+        // count the followers of each followed user
         for (Set<String> follows : followsGraph.values()) {
             for (String followedUser : follows) {
-                followedUser = followedUser.toLowerCase();
-                if (influencers.containsKey(followedUser)) {
-                    influencers.put(followedUser, influencers.get(followedUser) + 1);
-                } else {
-                    influencers.put(followedUser, 0);
-                }
+                int[] count = followerCounts.computeIfAbsent(Usernames.canonical(followedUser), key -> new int[1]);
+                count[0]++;
             }
         }
         // add remaining users
         for (String username : followsGraph.keySet()) {
-            username = username.toLowerCase();
-            if (!influencers.containsKey(username)) {
-                influencers.put(username.toLowerCase(), 0);
-            }
+            followerCounts.computeIfAbsent(Usernames.canonical(username), key -> new int[1]);
         }
-        // sort users by followers
-        while(!influencers.isEmpty()){
-            int topFollowers = Collections.max(influencers.values());
-            for (String username : influencers.keySet()){
-                if(influencers.get(username).equals(topFollowers)){
-                    influenceList.add(username);
-                    influencers.remove(username);
-                    break;
+        
+        List<String> influencers = rankByFollowers(followerCounts, k);
+        PipelineMetrics.INFLUENCERS.stop(sample, followerCounts.size(), influencers.size());
+        return influencers;
+    }
+
+    /**
+     * Find the k users with the most followers, given their follower counts.
+     * 
+     * @param followerCounts
+     *            map from each user to a one-element array holding their
+     *            follower count; not modified
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @return the min(k, followerCounts.size()) users with the highest counts,
+     *         in descending order of count; users with the same count are in
+     *         alphabetical order.
+     */
+    static List<String> rankByFollowers(Map<String, int[]> followerCounts, int k) {
+        Comparator<Map.Entry<String, int[]>> byInfluence = (a, b) -> {
+            int byCount = Integer.compare(b.getValue()[0], a.getValue()[0]);
+            return byCount != 0 ? byCount : a.getKey().compareTo(b.getKey());
+        };
+        List<Map.Entry<String, int[]>> ranked;
+        if (k >= followerCounts.size()) {
+            ranked = new ArrayList<>(followerCounts.entrySet());
+            ranked.sort(byInfluence);
+        } else {
+            // min-heap of the best k seen so far, weakest at the head
+            PriorityQueue<Map.Entry<String, int[]>> best = new PriorityQueue<>(k + 1, byInfluence.reversed());
+            for (Map.Entry<String, int[]> entry : followerCounts.entrySet()) {
+                if (best.size() < k) {
+                    best.add(entry);
+                } else if (k > 0 && byInfluence.compare(entry, best.peek()) < 0) {
+                    best.poll();
+                    best.add(entry);
                 }
             }
+            ranked = new ArrayList<>(best);
+            ranked.sort(byInfluence);
+        }
+        
+        List<String> influenceList = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, int[]> entry : ranked) {
+            influenceList.add(entry.getKey());
         }
         return influenceList;
     }
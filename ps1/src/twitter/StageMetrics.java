@@ -0,0 +1,368 @@
+package twitter;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Threadsafe running totals for one stage of the tweet pipeline: how many
+ * calls it completed, how many items (tweets, or users for stages that take a
+ * follows graph) those calls were given, the size of their results, the bytes
+ * they allocated and a histogram of their latencies.
+ *
+ * Calls are recorded with start() and stop(). Recording touches a handful of
+ * striped counters and asks the JVM for the current thread's allocation count,
+ * so it costs well under a microsecond, small beside any call over a list of
+ * tweets; it can be switched off for all stages with
+ * PipelineMetrics.setEnabled(false). Only the calling thread's allocation is
+ * counted, not that of worker threads a call uses.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+
+    /** Number of latency histogram buckets: 0 ns, then one per power of two. */
+    static final int BUCKETS = 64;
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder resultSize = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    // Abstraction function:
+    //   AF(name, calls, items, ...) = the metrics of the stage called name,
+    //       over calls.sum() completed calls that were given items.sum() items,
+    //       returned results of total size resultSize.sum(), allocated
+    //       allocatedBytes.sum() bytes and took totalNanos.sum() ns, the
+    //       longest maxNanos.get() ns; histogram[b].sum() of them took
+    //       [2^(b-1), 2^b) ns, or 0 ns for b = 0
+    //
+    // Representation invariant:
+    //   name is nonempty
+    //   histogram.length == BUCKETS and no element is null
+    //   (only holds between updates; concurrent readers may see one call
+    //   partly recorded)
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final, and none is returned.
+    //
+    // Thread safety argument:
+    //   every total is a LongAdder or LongAccumulator, which are threadsafe;
+    //   no invariant relates the totals to each other.
+
+    /**
+     * An unfinished call to a stage, returned by start().
+     */
+    public static final class Sample {
+        private final long startNanos;
+        private final long startBytes;
+
+        private Sample(long startNanos, long startBytes) {
+            this.startNanos = startNanos;
+            this.startBytes = startBytes;
+        }
+    }
+
+    /**
+     * Make metrics with every total zero.
+     *
+     * @param name name of the stage, requires a nonempty name
+     */
+    public StageMetrics(String name) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("requires a nonempty name");
+        }
+        this.name = name;
+        for (int b = 0; b < BUCKETS; b++) {
+            histogram[b] = new LongAdder();
+        }
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert !name.isEmpty();
+        assert histogram.length == BUCKETS;
+    }
+
+    /*
+     * The JVM's per-thread allocation counter, if it has one.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported()) {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // fall through and count no allocation
+        }
+        return null;
+    }
+
+    /*
+     * @return bytes allocated so far by the current thread, or 0 if unknown
+     */
+    private static long currentThreadAllocatedBytes() {
+        if (THREADS == null) {
+            return 0;
+        }
+        return Math.max(0, THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()));
+    }
+
+    /**
+     * Start recording a call to this stage.
+     *
+     * @return the call, to pass to stop() on the same thread when it
+     *         finishes; or null if metrics are disabled
+     */
+    public Sample start() {
+        if (!PipelineMetrics.isEnabled()) {
+            return null;
+        }
+        return new Sample(System.nanoTime(), currentThreadAllocatedBytes());
+    }
+
+    /**
+     * Finish recording a call to this stage and add it to the totals. Calls
+     * that throw an exception are simply never stopped.
+     *
+     * @param sample the call, as returned by start() on this thread; if null,
+     *               nothing is recorded
+     * @param itemCount number of items the call was given, requires >= 0
+     * @param resultSize size of the call's result, requires >= 0
+     */
+    public void stop(Sample sample, long itemCount, long resultSize) {
+        if (sample == null) {
+            return;
+        }
+        long nanos = Math.max(0, System.nanoTime() - sample.startNanos);
+        long bytes = Math.max(0, currentThreadAllocatedBytes() - sample.startBytes);
+        calls.increment();
+        items.add(itemCount);
+        this.resultSize.add(resultSize);
+        allocatedBytes.add(bytes);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+    }
+
+    /**
+     * @return an immutable copy of the current totals
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = histogram[b].sum();
+        }
+        return new Snapshot(name, calls.sum(), items.sum(), resultSize.sum(), allocatedBytes.sum(),
+                totalNanos.sum(), maxNanos.get(), counts);
+    }
+
+    @Override public String getName() {
+        return name;
+    }
+
+    @Override public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override public long getItems() {
+        return items.sum();
+    }
+
+    @Override public double getItemsPerSecond() {
+        return snapshot().getItemsPerSecond();
+    }
+
+    @Override public long getResultSize() {
+        return resultSize.sum();
+    }
+
+    @Override public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override public double getMeanLatencyNanos() {
+        return snapshot().getMeanLatencyNanos();
+    }
+
+    @Override public long getLatencyP50Nanos() {
+        return snapshot().getLatencyPercentileNanos(50);
+    }
+
+    @Override public long getLatencyP99Nanos() {
+        return snapshot().getLatencyPercentileNanos(99);
+    }
+
+    @Override public long getMaxLatencyNanos() {
+        return maxNanos.get();
+    }
+
+    @Override public long[] getLatencyHistogram() {
+        return snapshot().getLatencyHistogram();
+    }
+
+    @Override public void reset() {
+        calls.reset();
+        items.reset();
+        resultSize.reset();
+        allocatedBytes.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : histogram) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * An immutable copy of the totals of one stage at some moment.
+     */
+    public static final class Snapshot {
+
+        private final String name;
+        private final long calls;
+        private final long items;
+        private final long resultSize;
+        private final long allocatedBytes;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] histogram;
+
+        // Abstraction function:
+        //   AF(...) = the totals of StageMetrics with the same field names
+        //
+        // Representation invariant:
+        //   histogram.length == BUCKETS, all values >= 0
+        //
+        // Safety from rep exposure:
+        //   all fields are private and final; histogram is copied on return.
+
+        private Snapshot(String name, long calls, long items, long resultSize, long allocatedBytes,
+                long totalNanos, long maxNanos, long[] histogram) {
+            this.name = name;
+            this.calls = calls;
+            this.items = items;
+            this.resultSize = resultSize;
+            this.allocatedBytes = allocatedBytes;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.histogram = histogram;
+        }
+
+        /**
+         * @return name of the stage
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return number of completed calls
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return number of items given to the completed calls
+         */
+        public long getItems() {
+            return items;
+        }
+
+        /**
+         * @return items processed per second of time spent in the stage, or 0
+         *         if no time has been spent in it
+         */
+        public double getItemsPerSecond() {
+            return totalNanos == 0 ? 0 : items * 1e9 / totalNanos;
+        }
+
+        /**
+         * @return total size of the results of the completed calls
+         */
+        public long getResultSize() {
+            return resultSize;
+        }
+
+        /**
+         * @return bytes allocated by the calling threads during the calls
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * @return total time spent in the completed calls, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return mean latency in nanoseconds, or 0 if there were no calls
+         */
+        public double getMeanLatencyNanos() {
+            return calls == 0 ? 0 : (double) totalNanos / calls;
+        }
+
+        /**
+         * @return largest latency of a completed call in nanoseconds
+         */
+        public long getMaxLatencyNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * @param percentile requires 0 <= percentile <= 100
+         * @return an upper bound on the latency of that percentile of calls, in
+         *         nanoseconds: the end of its histogram bucket, and at most the
+         *         largest latency; 0 if there were no calls
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("requires 0 <= percentile <= 100");
+            }
+            long total = 0;
+            for (long count : histogram) {
+                total += count;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += histogram[b];
+                if (seen >= rank && seen > 0) {
+                    long bucketEnd = (1L << b) - 1;
+                    return Math.min(bucketEnd, maxNanos);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return latency histogram: element b is the number of calls that
+         *         took [2^(b-1), 2^b) nanoseconds, and element 0 those that
+         *         took 0
+         */
+        public long[] getLatencyHistogram() {
+            return Arrays.copyOf(histogram, histogram.length);
+        }
+
+        @Override public String toString() {
+            return String.format("%s: %d calls, %d items (%.0f/s), result size %d, %d bytes allocated, "
+                    + "latency mean %.0f ns, p50 %d ns, p99 %d ns, max %d ns",
+                    name, calls, items, getItemsPerSecond(), resultSize, allocatedBytes,
+                    getMeanLatencyNanos(), getLatencyPercentileNanos(50), getLatencyPercentileNanos(99), maxNanos);
+        }
+    }
+}
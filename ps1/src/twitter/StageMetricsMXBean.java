@@ -0,0 +1,74 @@
+package twitter;
+
+/**
+ * Management interface of StageMetrics, through which JMX clients such as
+ * jconsole read the metrics of one pipeline stage. All values are totals since
+ * the metrics were created or last reset.
+ */
+public interface StageMetricsMXBean {
+
+    /**
+     * @return name of the stage
+     */
+    String getName();
+
+    /**
+     * @return number of completed calls to the stage
+     */
+    long getCalls();
+
+    /**
+     * @return number of items (see StageMetrics) given to the completed calls
+     */
+    long getItems();
+
+    /**
+     * @return items processed per second of time spent in the stage, or 0 if
+     *         no time has been spent in it
+     */
+    double getItemsPerSecond();
+
+    /**
+     * @return total size of the results of the completed calls
+     */
+    long getResultSize();
+
+    /**
+     * @return bytes allocated by the calling threads during the completed
+     *         calls, or 0 if the JVM cannot measure it
+     */
+    long getAllocatedBytes();
+
+    /**
+     * @return mean latency of the completed calls in nanoseconds, or 0 if there
+     *         were none
+     */
+    double getMeanLatencyNanos();
+
+    /**
+     * @return median latency in nanoseconds, rounded up to a power of two
+     */
+    long getLatencyP50Nanos();
+
+    /**
+     * @return 99th percentile latency in nanoseconds, rounded up to a power of
+     *         two
+     */
+    long getLatencyP99Nanos();
+
+    /**
+     * @return largest latency of a completed call in nanoseconds
+     */
+    long getMaxLatencyNanos();
+
+    /**
+     * @return latency histogram: element b is the number of calls that took
+     *         [2^(b-1), 2^b) nanoseconds, and element 0 those that took 0
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * Set every total back to zero.
+     */
+    void reset();
+}
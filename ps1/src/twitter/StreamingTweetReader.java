@@ -0,0 +1,243 @@
+package twitter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * A mutable iterator over the tweets in a JSON array, parsed incrementally.
+ *
+ * Accepts the same input as TweetReader (a JSON array of tweet objects), but
+ * instead of reading the whole array into a tree it pulls parser events and
+ * keeps only the fields a Tweet needs: "id", "user.screen_name", "text" and
+ * "created_at". Everything else is skipped, so memory use does not depend on
+ * the size of the input.
+ */
+public class StreamingTweetReader implements Iterator<Tweet>, Closeable {
+
+    private final JsonParser parser;
+    private Tweet next;
+    private boolean started;
+    private boolean finished;
+
+    // Abstraction function:
+    //   AF(parser, next, finished) = the sequence of tweets still to be read,
+    //                                which is next (if not null) followed by
+    //                                the tweets parser has not yet reached
+    //
+    // Representation invariant:
+    //   finished implies next == null
+    //   !started implies next == null
+    //
+    // Safety from rep exposure:
+    //   all fields are private;
+    //   Tweet is immutable, so returning next is safe.
+
+    /**
+     * Create a reader over a JSON array of tweets.
+     *
+     * @param reader source of the JSON text; it is read lazily as tweets are
+     *               requested and closed by close()
+     */
+    public StreamingTweetReader(Reader reader) {
+        this.parser = Json.createParser(reader);
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert parser != null;
+        assert !finished || next == null;
+        assert started || next == null;
+    }
+
+    /**
+     * Read every tweet from a stream, passing each one to a consumer as soon
+     * as it has been parsed. Recorded in PipelineMetrics.READ, including the
+     * time the consumer takes.
+     *
+     * @param reader source of a JSON array of tweets; closed by this method
+     * @param consumer receives the tweets in the order they appear in the input
+     * @throws JsonException if the input is not a JSON array of tweets
+     */
+    public static void readTweets(Reader reader, Consumer<? super Tweet> consumer) {
+        StageMetrics.Sample sample = PipelineMetrics.READ.start();
+        long count = 0;
+        try (StreamingTweetReader tweets = new StreamingTweetReader(reader)) {
+            while (tweets.hasNext()) {
+                consumer.accept(tweets.next());
+                count++;
+            }
+        }
+        PipelineMetrics.READ.stop(sample, count, count);
+    }
+
+    /**
+     * Read every tweet from a web server, passing each one to a consumer as
+     * soon as it has been parsed.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @param consumer receives the tweets in the order the server sent them
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static void readTweetsFromWeb(URL url, Consumer<? super Tweet> consumer) throws IOException {
+        readTweets(new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)), consumer);
+    }
+
+    @Override public boolean hasNext() {
+        if (next == null && !finished) {
+            next = readNext();
+            finished = next == null;
+        }
+        checkRep();
+        return next != null;
+    }
+
+    @Override public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet result = next;
+        next = null;
+        checkRep();
+        return result;
+    }
+
+    /**
+     * Release the underlying stream. Tweets not yet read are discarded.
+     */
+    @Override public void close() {
+        next = null;
+        finished = true;
+        parser.close();
+    }
+
+    /*
+     * Advance the parser past the next tweet object in the array.
+     *
+     * @return the tweet, or null if the array has ended
+     */
+    private Tweet readNext() {
+        if (!started) {
+            if (!parser.hasNext() || parser.next() != Event.START_ARRAY) {
+                throw new JsonException("expected a JSON array of tweets");
+            }
+            started = true;
+        }
+        if (!parser.hasNext()) {
+            throw new JsonException("unterminated JSON array of tweets");
+        }
+        Event event = parser.next();
+        if (event == Event.END_ARRAY) {
+            return null;
+        } else if (event != Event.START_OBJECT) {
+            throw new JsonException("expected a tweet object but found " + event);
+        }
+        return readTweetObject();
+    }
+
+    /*
+     * Read the fields of one tweet, with the parser just past its START_OBJECT.
+     * Leaves the parser just past the matching END_OBJECT.
+     */
+    private Tweet readTweetObject() {
+        String id = null;
+        String screenName = null;
+        String text = null;
+        String createdAt = null;
+
+        while (parser.next() != Event.END_OBJECT) {
+            // parser is on a KEY_NAME
+            String key = parser.getString();
+            Event value = parser.next();
+            switch (key) {
+            case "id":
+                id = scalar(value, key);
+                break;
+            case "text":
+                text = scalar(value, key);
+                break;
+            case "created_at":
+                createdAt = scalar(value, key);
+                break;
+            case "user.screen_name":
+                screenName = scalar(value, key);
+                break;
+            case "user":
+                if (value == Event.START_OBJECT) {
+                    screenName = readScreenName();
+                } else {
+                    skip(value);
+                }
+                break;
+            default:
+                skip(value);
+            }
+        }
+
+        if (id == null || screenName == null || text == null || createdAt == null) {
+            throw new JsonException("tweet is missing one of id, user.screen_name, text, created_at");
+        }
+        return new Tweet(Long.parseLong(id), screenName, text, TwitterTimestamps.parse(createdAt));
+    }
+
+    /*
+     * Read the "user" object of a tweet, with the parser just past its
+     * START_OBJECT, and return its screen_name (or null if it has none).
+     */
+    private String readScreenName() {
+        String screenName = null;
+        while (parser.next() != Event.END_OBJECT) {
+            String key = parser.getString();
+            Event value = parser.next();
+            if (key.equals("screen_name")) {
+                screenName = scalar(value, key);
+            } else {
+                skip(value);
+            }
+        }
+        return screenName;
+    }
+
+    /*
+     * Get the text of the string or number value the parser is positioned on.
+     */
+    private String scalar(Event value, String key) {
+        if (value != Event.VALUE_STRING && value != Event.VALUE_NUMBER) {
+            throw new JsonException("unexpected value " + value + " for " + key);
+        }
+        return parser.getString();
+    }
+
+    /*
+     * Skip the value the parser is positioned on, including any nested
+     * objects or arrays.
+     */
+    private void skip(Event value) {
+        if (value != Event.START_OBJECT && value != Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event event = parser.next();
+            if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+                depth++;
+            } else if (event == Event.END_OBJECT || event == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+}
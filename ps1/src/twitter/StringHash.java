@@ -0,0 +1,36 @@
+package twitter;
+
+/**
+ * A fast 64-bit hash of strings, for probabilistic data structures that need
+ * hash bits spread evenly over the whole long, unlike String.hashCode().
+ */
+class StringHash {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StringHash() {
+        // static methods only
+    }
+
+    /**
+     * @param s string to hash
+     * @return a 64-bit hash of the characters of s; equal strings have equal
+     *         hashes on every JVM and in every run
+     */
+    static long hash64(CharSequence s) {
+        // FNV-1a over the UTF-16 code units, then the MurmurHash3 finalizer so
+        // every input bit affects every output bit
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,334 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * A mutable, endless source of synthetic tweets for load testing, determined
+ * entirely by its seed and parameters.
+ *
+ * Users are named "user0", "user1", ... in order of decreasing activity and
+ * popularity. Authors follow a Zipf distribution: user k writes a share of
+ * tweets proportional to 1 / (k+1)^authorExponent. Each user has a fixed
+ * circle of a few friends, drawn from the same kind of distribution with
+ * mentionExponent, and only @-mentions them, so the mention graph has a
+ * power-law in-degree and stays the same however many tweets are generated.
+ * Hashtags come from the given vocabulary, earlier ones being more popular.
+ * Tweets are sent at increasing whole seconds, a random (exponential) gap
+ * apart.
+ *
+ * Not threadsafe.
+ */
+public class TweetGenerator implements Iterator<Tweet> {
+
+    /** Default Zipf exponent of author activity. */
+    public static final double DEFAULT_AUTHOR_EXPONENT = 1.0;
+    /** Default Zipf exponent of how often users are mentioned. */
+    public static final double DEFAULT_MENTION_EXPONENT = 1.2;
+    /** Default time of the first tweet. */
+    public static final Instant DEFAULT_START = Instant.parse("2016-01-01T00:00:00Z");
+    /** Default mean time between consecutive tweets. */
+    public static final Duration DEFAULT_MEAN_INTERVAL = Duration.ofSeconds(1);
+
+    /** Number of distinct users each user ever mentions. */
+    private static final int FRIENDS_PER_USER = 8;
+    private static final double HASHTAG_EXPONENT = 1.0;
+    private static final long FIRST_ID = 700_000_000_000_000_000L;
+    private static final int MAX_TEXT_LENGTH = 140;
+    private static final String[] WORDS = { "rivest", "talk", "in", "30", "minutes", "sup?", "not",
+                                            "much,", "e-mail", "mike@gmail.com", "!!!", "the", "obama",
+                                            "is", "great", "6.005", "lecture", "today", "lol" };
+
+    private final long seed;
+    private final Random random;
+    private final double[] authorCdf;
+    private final double[] mentionCdf;
+    private final List<String> hashtags;
+    private final double[] hashtagCdf;
+    private final double meanIntervalSeconds;
+    private long count;
+    private long epochSecond;
+
+    // Abstraction function:
+    //   AF(seed, random, count, epochSecond, ...) = the endless sequence of
+    //       tweets that follow the count tweets already generated from seed,
+    //       the last of which was sent at epochSecond
+    //
+    // Representation invariant:
+    //   authorCdf and mentionCdf have one entry per user, hashtagCdf one per
+    //     hashtag; each is nondecreasing and ends at 1
+    //   hashtags is nonempty and every hashtag is a valid Twitter username
+    //   meanIntervalSeconds >= 0, count >= 0
+    //
+    // Safety from rep exposure:
+    //   all fields are private; hashtags is an unmodifiable copy, and Tweets
+    //   are immutable.
+
+    /**
+     * Make a generator with the default distributions and timing.
+     *
+     * @param seed seed of the random choices; generators made with the same
+     *             arguments produce the same tweets
+     * @param userCount number of users, requires userCount > 0
+     * @param hashtagCount number of hashtags, named "tag0", "tag1", ...,
+     *                     requires hashtagCount > 0
+     */
+    public TweetGenerator(long seed, int userCount, int hashtagCount) {
+        this(seed, userCount, hashtags(hashtagCount), DEFAULT_AUTHOR_EXPONENT, DEFAULT_MENTION_EXPONENT,
+                DEFAULT_START, DEFAULT_MEAN_INTERVAL);
+    }
+
+    /**
+     * Make a generator.
+     *
+     * @param seed seed of the random choices; generators made with the same
+     *             arguments produce the same tweets
+     * @param userCount number of users, requires userCount > 0
+     * @param hashtags hashtag vocabulary without "#", most popular first;
+     *                 requires a nonempty list of valid Twitter usernames
+     * @param authorExponent Zipf exponent of author activity, requires >= 0;
+     *                       0 makes every user equally active
+     * @param mentionExponent Zipf exponent of how often users are mentioned,
+     *                        requires >= 0
+     * @param start time of the first tweet, rounded down to a whole second
+     * @param meanInterval mean time between consecutive tweets, requires a
+     *                     nonnegative duration
+     */
+    public TweetGenerator(long seed, int userCount, List<String> hashtags, double authorExponent,
+            double mentionExponent, Instant start, Duration meanInterval) {
+        if (userCount <= 0 || hashtags.isEmpty() || !(authorExponent >= 0) || !(mentionExponent >= 0)
+                || meanInterval.isNegative()) {
+            throw new IllegalArgumentException("requires userCount > 0, nonempty hashtags, "
+                    + "exponents >= 0 and a nonnegative meanInterval");
+        }
+        for (String hashtag : hashtags) {
+            if (hashtag.isEmpty() || !hashtag.chars().allMatch(c -> TweetTokenizer.isUsernameChar((char) c))) {
+                throw new IllegalArgumentException("invalid hashtag: " + hashtag);
+            }
+        }
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.authorCdf = zipfCdf(userCount, authorExponent);
+        this.mentionCdf = authorExponent == mentionExponent ? authorCdf : zipfCdf(userCount, mentionExponent);
+        this.hashtags = Collections.unmodifiableList(new ArrayList<>(hashtags));
+        this.hashtagCdf = zipfCdf(hashtags.size(), HASHTAG_EXPONENT);
+        this.meanIntervalSeconds = meanInterval.toNanos() / 1e9;
+        this.epochSecond = start.getEpochSecond();
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert authorCdf.length == mentionCdf.length;
+        assert hashtagCdf.length == hashtags.size();
+        assert meanIntervalSeconds >= 0;
+        assert count >= 0;
+    }
+
+    /**
+     * @param count number of hashtags, requires count > 0
+     * @return the hashtags "tag0", "tag1", ..., "tag" + (count-1)
+     */
+    public static List<String> hashtags(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("requires count > 0");
+        }
+        List<String> hashtags = new ArrayList<>(count);
+        for (int h = 0; h < count; h++) {
+            hashtags.add("tag" + h);
+        }
+        return hashtags;
+    }
+
+    /*
+     * Cumulative distribution of Zipf's law over n ranks with exponent s.
+     */
+    private static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += Math.pow(k + 1, -s);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= total;
+        }
+        cdf[n - 1] = 1;
+        return cdf;
+    }
+
+    /*
+     * Rank whose probability interval in cdf contains u, for u in [0, 1).
+     */
+    private static int sample(double[] cdf, double u) {
+        int k = Arrays.binarySearch(cdf, u);
+        return k >= 0 ? Math.min(k + 1, cdf.length - 1) : -k - 1;
+    }
+
+    /*
+     * The user that a user mentions as their friend-th friend; a fixed
+     * function of the seed, so the mention graph does not depend on how many
+     * tweets have been generated.
+     */
+    private int friend(int user, int friend) {
+        long h = seed + 0x9e3779b97f4a7c15L * (user * (long) FRIENDS_PER_USER + friend + 1);
+        // SplitMix64 finalizer, then the top 53 bits as a double in [0, 1)
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return sample(mentionCdf, (h >>> 11) * 0x1.0p-53);
+    }
+
+    /**
+     * @return true; the sequence of tweets never ends
+     */
+    @Override public boolean hasNext() {
+        return true;
+    }
+
+    /**
+     * @return the next tweet, with an id one greater than the last, sent no
+     *         earlier than the last, and with text of at most 140 characters
+     */
+    @Override public Tweet next() {
+        int author = sample(authorCdf, random.nextDouble());
+        if (meanIntervalSeconds > 0 && count > 0) {
+            epochSecond += Math.round(-meanIntervalSeconds * Math.log(1 - random.nextDouble()));
+        }
+
+        StringBuilder text = new StringBuilder(MAX_TEXT_LENGTH);
+        int length = 40 + random.nextInt(MAX_TEXT_LENGTH - 40);
+        while (text.length() < length) {
+            String word;
+            int kind = random.nextInt(12);
+            if (kind == 0) {
+                int mentioned = friend(author, random.nextInt(FRIENDS_PER_USER));
+                // usernames are case-insensitive, so vary the case now and then
+                word = (random.nextInt(8) == 0 ? "@User" : "@user") + mentioned;
+            } else if (kind == 1) {
+                word = "#" + hashtags.get(sample(hashtagCdf, random.nextDouble()));
+            } else {
+                word = WORDS[random.nextInt(WORDS.length)];
+            }
+            int separator = text.length() == 0 ? 0 : 1;
+            if (text.length() + separator + word.length() > MAX_TEXT_LENGTH) {
+                break;
+            }
+            if (separator > 0) {
+                text.append(' ');
+            }
+            text.append(word);
+        }
+
+        Tweet tweet = new Tweet(FIRST_ID + count, "user" + author, text.toString(), Instant.ofEpochSecond(epochSecond));
+        count++;
+        checkRep();
+        return tweet;
+    }
+
+    /**
+     * @param count number of tweets, requires count >= 0
+     * @return the next count tweets, in the order generated
+     */
+    public List<Tweet> next(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("requires count >= 0");
+        }
+        List<Tweet> tweets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tweets.add(next());
+        }
+        return tweets;
+    }
+
+    /**
+     * Write the next count tweets as a JSON array that TweetReader,
+     * StreamingTweetReader and MappedTweetReader accept. Tweets are written as
+     * they are generated, so count may exceed what fits in memory.
+     *
+     * @param count number of tweets, requires count >= 0
+     * @param out destination of the JSON text; flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void writeJson(long count, Writer out) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("requires count >= 0");
+        }
+        // closing the JSON generator closes its writer, so give it one that
+        // only flushes out
+        try (JsonGenerator json = Json.createGenerator(new NonClosingWriter(out))) {
+            json.writeStartArray();
+            for (long i = 0; i < count; i++) {
+                Tweet tweet = next();
+                // the flat form of the sample server that TweetReader reads
+                json.writeStartObject()
+                        .write("id", tweet.getId())
+                        .write("user.screen_name", tweet.getAuthor())
+                        .write("text", tweet.getText())
+                        .write("created_at", ZonedDateTime.ofInstant(tweet.getTimestamp(), ZoneOffset.UTC)
+                                .format(TwitterTimestamps.CREATED_AT_FORMAT))
+                        .writeEnd();
+            }
+            json.writeEnd();
+        } catch (JsonException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write the next count tweets to a file, as writeJson(long, Writer) does.
+     *
+     * @param count number of tweets, requires count >= 0
+     * @param file file to create or replace, in UTF-8
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(long count, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeJson(count, out);
+        }
+    }
+
+    /*
+     * A Writer that passes everything on to another but only flushes it on
+     * close().
+     */
+    private static class NonClosingWriter extends Writer {
+        private final Writer out;
+
+        NonClosingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override public void write(char[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+        }
+
+        @Override public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable inverted index over a list of tweets, built once and then
+ * queried many times.
+ *
+ * Answers the same queries as Filter.writtenBy and Filter.containing, with the
+ * same results, in time proportional to the size of the result rather than the
+ * size of the list.
+ */
+public class TweetIndex {
+
+    private final List<Tweet> tweets;
+    private final Map<String, int[]> postingsByAuthor;
+    private final Map<String, int[]> postingsByTerm;
+
+    // Abstraction function:
+    //   AF(tweets, postingsByAuthor, postingsByTerm) = an index over the list
+    //       tweets, where postingsByAuthor[a] are the positions in tweets of the
+    //       tweets whose lowercased author is a, and postingsByTerm[t] are the
+    //       positions of the tweets whose text contains the word t as
+    //       Filter.containing splits it
+    //
+    // Representation invariant:
+    //   every posting list is nonempty, strictly increasing, and its elements
+    //   are in [0, tweets.size())
+    //   keys of postingsByAuthor and postingsByTerm are lowercase
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   tweets is an unmodifiable copy of the client's list;
+    //   posting lists are only returned to package-private callers that must
+    //   not modify them; public queries return fresh lists of immutable Tweets.
+
+    /**
+     * Build an index over a list of tweets.
+     *
+     * @param tweets a list of tweets with distinct ids, not modified by this
+     *               constructor; later changes to it do not affect the index
+     */
+    public TweetIndex(List<Tweet> tweets) {
+        this.tweets = Collections.unmodifiableList(new ArrayList<>(tweets));
+
+        Map<String, PostingList> authors = new HashMap<>();
+        Map<String, PostingList> terms = new HashMap<>();
+        for (int i = 0; i < this.tweets.size(); i++) {
+            Tweet tweet = this.tweets.get(i);
+            authors.computeIfAbsent(tweet.getAuthor().toLowerCase(), key -> new PostingList()).add(i);
+            for (String term : WordMatcher.words(tweet.getText())) {
+                terms.computeIfAbsent(term, key -> new PostingList()).add(i);
+            }
+        }
+        this.postingsByAuthor = freeze(authors);
+        this.postingsByTerm = freeze(terms);
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert tweets != null;
+        assert postingsByAuthor != null;
+        assert postingsByTerm != null;
+    }
+
+    /**
+     * @return the tweets this index was built over, in their original order
+     */
+    public List<Tweet> getTweets() {
+        return tweets;
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username Twitter username, required to be a valid Twitter username
+     *                 as defined by Tweet.getAuthor()'s spec.
+     * @return all and only the indexed tweets whose author is username,
+     *         in the same order as in the indexed list.
+     */
+    public List<Tweet> writtenBy(String username) {
+        int[] positions = positionsWrittenBy(username);
+        return select(positions, positions.length);
+    }
+
+    /**
+     * Find the positions of tweets written by a particular user.
+     *
+     * @param username Twitter username
+     * @return the strictly increasing positions in getTweets() of the tweets
+     *         whose author is username; callers must not modify the array
+     */
+    int[] positionsWrittenBy(String username) {
+        int[] postings = postingsByAuthor.get(username.toLowerCase());
+        return postings == null ? new int[0] : postings;
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     *
+     * @param words a list of words to search for in the tweets.
+     *              A word is a nonempty sequence of nonspace characters.
+     * @return all and only the indexed tweets that include at least one of the
+     *         words, as defined by Filter.containing, in the same order as in
+     *         the indexed list.
+     */
+    public List<Tweet> containing(List<String> words) {
+        int[] positions = positionsContaining(words);
+        return select(positions, positions.length);
+    }
+
+    /**
+     * Find the positions of tweets that contain certain words.
+     *
+     * @param words a list of words to search for in the tweets
+     * @return the strictly increasing positions in getTweets() of the tweets
+     *         that include at least one of the words; callers must not modify
+     *         the array
+     */
+    int[] positionsContaining(List<String> words) {
+        List<int[]> matches = new ArrayList<>();
+        int total = 0;
+        for (String word : words) {
+            int[] postings = postingsByTerm.get(word.toLowerCase());
+            if (postings != null) {
+                matches.add(postings);
+                total += postings.length;
+            }
+        }
+        if (matches.isEmpty()) {
+            return new int[0];
+        } else if (matches.size() == 1) {
+            return matches.get(0);
+        }
+
+        // union of the posting lists, in tweet order
+        int[] union = new int[total];
+        int offset = 0;
+        for (int[] postings : matches) {
+            System.arraycopy(postings, 0, union, offset, postings.length);
+            offset += postings.length;
+        }
+        Arrays.sort(union);
+        int distinct = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (i == 0 || union[i] != union[i - 1]) {
+                union[distinct++] = union[i];
+            }
+        }
+        return Arrays.copyOf(union, distinct);
+    }
+
+    /*
+     * Get the tweets at the first count positions of a posting list.
+     */
+    private List<Tweet> select(int[] postings, int count) {
+        List<Tweet> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(tweets.get(postings[i]));
+        }
+        return result;
+    }
+
+    /*
+     * Trim every posting list to its final size.
+     */
+    private static Map<String, int[]> freeze(Map<String, PostingList> lists) {
+        Map<String, int[]> frozen = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<String, PostingList> entry : lists.entrySet()) {
+            frozen.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return frozen;
+    }
+
+    /**
+     * A growable, strictly increasing list of tweet positions.
+     * This class is internal to the rep of TweetIndex.
+     */
+    private static class PostingList {
+
+        private int[] positions = new int[2];
+        private int size;
+
+        /**
+         * Append a position, ignoring it if it is already the last one.
+         *
+         * @param position requires position >= every position already added
+         */
+        void add(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
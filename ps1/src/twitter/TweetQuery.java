@@ -0,0 +1,313 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable conjunction of the predicates in Filter, evaluated in one pass.
+ *
+ * Build a query by chaining writtenBy(), inTimespan() and containing() onto
+ * TweetQuery.all(); each call returns a new query that also requires the added
+ * predicate. Evaluating the query gives the same tweets, in the same order, as
+ * applying the corresponding Filter methods one after another, but without an
+ * intermediate list per predicate.
+ *
+ * Before each evaluation the query plans the order in which to test its
+ * predicates. It estimates how many tweets each predicate passes, from a small
+ * evenly spaced sample of the tweets or, for predicates a TweetIndex can
+ * answer, exactly from the index, and tests cheap, selective predicates first
+ * so most tweets are rejected after one test.
+ */
+public class TweetQuery {
+
+    /** Number of tweets sampled to estimate how selective a predicate is. */
+    static final int SAMPLE_SIZE = 64;
+
+    private static final TweetQuery ALL = new TweetQuery(Collections.emptyList());
+
+    private final List<Criterion> criteria;
+
+    // Abstraction function:
+    //   AF(criteria) = the query that selects the tweets passing every
+    //                  criterion in criteria, in their original order
+    //
+    // Representation invariant:
+    //   criteria is unmodifiable and contains no nulls
+    //
+    // Safety from rep exposure:
+    //   criteria is private, final and unmodifiable, and every Criterion is
+    //   immutable.
+
+    private TweetQuery(List<Criterion> criteria) {
+        this.criteria = criteria;
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert !criteria.contains(null);
+    }
+
+    /**
+     * @return the query that selects every tweet
+     */
+    public static TweetQuery all() {
+        return ALL;
+    }
+
+    /**
+     * @param username Twitter username, required to be a valid Twitter
+     *                 username as defined by Tweet.getAuthor()'s spec
+     * @return a query that selects the tweets this query selects that were
+     *         written by username, as Filter.writtenBy defines it
+     */
+    public TweetQuery writtenBy(String username) {
+        return and(new WrittenBy(username));
+    }
+
+    /**
+     * @param timespan timespan
+     * @return a query that selects the tweets this query selects that were
+     *         sent during timespan, as Filter.inTimespan defines it
+     */
+    public TweetQuery inTimespan(Timespan timespan) {
+        return and(new InTimespan(timespan));
+    }
+
+    /**
+     * @param words a list of words; a word is a nonempty sequence of nonspace
+     *              characters; not modified by this method
+     * @return a query that selects the tweets this query selects that contain
+     *         at least one of the words, as Filter.containing defines it
+     */
+    public TweetQuery containing(List<String> words) {
+        return and(new Containing(words));
+    }
+
+    private TweetQuery and(Criterion criterion) {
+        List<Criterion> more = new ArrayList<>(criteria);
+        more.add(criterion);
+        return new TweetQuery(Collections.unmodifiableList(more));
+    }
+
+    /**
+     * Find the tweets this query selects.
+     *
+     * @param tweets a list of tweets with distinct ids, not modified by this
+     *               method
+     * @return all and only the tweets in the list that pass every predicate of
+     *         this query, in the same order as in the input list
+     */
+    public List<Tweet> evaluate(List<Tweet> tweets) {
+        List<Criterion> order = plan(tweets, criteria);
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (passesAll(order, tweet)) {
+                result.add(tweet);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the indexed tweets this query selects. The predicate with the
+     * fewest matches in the index picks the candidate tweets, and only those
+     * are tested against the other predicates.
+     *
+     * @param index index over a list of tweets
+     * @return all and only the tweets in index.getTweets() that pass every
+     *         predicate of this query, in the same order as in that list
+     */
+    public List<Tweet> evaluate(TweetIndex index) {
+        List<Tweet> tweets = index.getTweets();
+        int[] candidates = null;
+        Criterion driver = null;
+        for (Criterion criterion : criteria) {
+            int[] positions = criterion.positions(index);
+            if (positions != null && (candidates == null || positions.length < candidates.length)) {
+                candidates = positions;
+                driver = criterion;
+            }
+        }
+        if (candidates == null) {
+            return evaluate(tweets);
+        }
+
+        List<Criterion> rest = new ArrayList<>(criteria);
+        rest.remove(driver);
+        List<Criterion> order = plan(tweets, rest);
+        List<Tweet> result = new ArrayList<>();
+        for (int position : candidates) {
+            Tweet tweet = tweets.get(position);
+            if (passesAll(order, tweet)) {
+                result.add(tweet);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Describe the order in which evaluate(tweets) would test this query's
+     * predicates.
+     *
+     * @param tweets tweets the query would be evaluated over
+     * @return one description per predicate, in testing order
+     */
+    List<String> plan(List<Tweet> tweets) {
+        List<String> descriptions = new ArrayList<>();
+        for (Criterion criterion : plan(tweets, criteria)) {
+            descriptions.add(criterion.toString());
+        }
+        return descriptions;
+    }
+
+    private static boolean passesAll(List<Criterion> order, Tweet tweet) {
+        for (Criterion criterion : order) {
+            if (!criterion.test(tweet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Order criteria so the expected cost of rejecting a tweet is least: by
+     * cost / (1 - pass rate), the standard rank for ordering independent
+     * filters, with pass rates estimated from an evenly spaced sample.
+     */
+    private static List<Criterion> plan(List<Tweet> tweets, List<Criterion> criteria) {
+        List<Criterion> order = new ArrayList<>(criteria);
+        if (order.size() < 2) {
+            return order;
+        }
+        // without random access, sampling would cost a scan; rank by cost alone
+        int samples = tweets instanceof RandomAccess ? Math.min(SAMPLE_SIZE, tweets.size()) : 0;
+        double[] rank = new double[order.size()];
+        for (int c = 0; c < order.size(); c++) {
+            Criterion criterion = order.get(c);
+            int passed = 0;
+            for (int i = 0; i < samples; i++) {
+                if (criterion.test(tweets.get((int) ((long) i * tweets.size() / samples)))) {
+                    passed++;
+                }
+            }
+            // smoothed, so a predicate that passed every sample still ranks
+            double passRate = (passed + 1.0) / (samples + 2.0);
+            rank[c] = criterion.cost() / (1 - passRate);
+        }
+        Integer[] positions = new Integer[order.size()];
+        for (int c = 0; c < positions.length; c++) {
+            positions[c] = c;
+        }
+        Arrays.sort(positions, (a, b) -> Double.compare(rank[a], rank[b]));
+        List<Criterion> sorted = new ArrayList<>(order.size());
+        for (int c : positions) {
+            sorted.add(order.get(c));
+        }
+        return sorted;
+    }
+
+    /**
+     * One predicate of a query. Immutable.
+     */
+    private abstract static class Criterion {
+
+        /**
+         * @return true iff tweet passes this predicate
+         */
+        abstract boolean test(Tweet tweet);
+
+        /**
+         * @return relative cost of test() on a typical tweet
+         */
+        abstract double cost();
+
+        /**
+         * @param index index over a list of tweets
+         * @return the strictly increasing positions in index.getTweets() of the
+         *         tweets that pass this predicate, not to be modified; or null
+         *         if the index cannot answer this predicate
+         */
+        int[] positions(TweetIndex index) {
+            return null;
+        }
+    }
+
+    private static class WrittenBy extends Criterion {
+        private final String username;
+
+        WrittenBy(String username) {
+            this.username = username;
+        }
+
+        @Override boolean test(Tweet tweet) {
+            return tweet.getAuthor().equalsIgnoreCase(username);
+        }
+
+        @Override double cost() {
+            return 1;
+        }
+
+        @Override int[] positions(TweetIndex index) {
+            return index.positionsWrittenBy(username);
+        }
+
+        @Override public String toString() {
+            return "writtenBy(" + username + ")";
+        }
+    }
+
+    private static class InTimespan extends Criterion {
+        private final Instant start;
+        private final Instant end;
+
+        InTimespan(Timespan timespan) {
+            this.start = timespan.getStart();
+            this.end = timespan.getEnd();
+        }
+
+        @Override boolean test(Tweet tweet) {
+            Instant timestamp = tweet.getTimestamp();
+            return !timestamp.isBefore(start) && !timestamp.isAfter(end);
+        }
+
+        @Override double cost() {
+            return 1;
+        }
+
+        @Override public String toString() {
+            return "inTimespan(" + start + ", " + end + ")";
+        }
+    }
+
+    private static class Containing extends Criterion {
+        private final WordMatcher matcher;
+        private final List<String> originalWords;
+
+        Containing(List<String> words) {
+            this.originalWords = Collections.unmodifiableList(new ArrayList<>(words));
+            this.matcher = new WordMatcher(originalWords);
+        }
+
+        @Override boolean test(Tweet tweet) {
+            return matcher.matches(tweet);
+        }
+
+        @Override double cost() {
+            // scans the whole text, though without building any words
+            return 20;
+        }
+
+        @Override int[] positions(TweetIndex index) {
+            return index.positionsContaining(originalWords);
+        }
+
+        @Override public String toString() {
+            return "containing(" + originalWords + ")";
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package twitter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Approximate mention and hashtag statistics over any number of tweets, in
+ * fixed memory.
+ *
+ * Where Extract.getMentionedUsers keeps every mentioned username, a
+ * TweetSketches keeps a HyperLogLog of mentioned users, to estimate how many
+ * distinct users were mentioned, and Count-Min sketches of mentions and
+ * hashtags, to estimate how often each user was mentioned and each hashtag was
+ * used. Sketches built on separate shards of a feed with the same error bounds
+ * can be merged into one that summarizes the whole feed.
+ *
+ * Not threadsafe.
+ */
+public class TweetSketches {
+
+    private final HyperLogLog mentionedUsers;
+    private final CountMinSketch mentionCounts;
+    private final CountMinSketch hashtagCounts;
+
+    // Abstraction function:
+    //   AF(mentionedUsers, mentionCounts, hashtagCounts) = approximate
+    //       statistics of a collection of tweets: the distinct users they
+    //       @-mention, the number of tweets mentioning each user, and the number
+    //       of tweets using each hashtag
+    //
+    // Representation invariant:
+    //   mentionCounts and hashtagCounts have the same width and depth
+    //   usernames and hashtags added to the sketches are lowercase
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final, and the sketches are never returned.
+
+    /**
+     * Make empty statistics.
+     *
+     * @param relativeError relative standard error of the distinct-user
+     *                      estimate, requires 0 < relativeError < 1
+     * @param epsilon error bound of frequency estimates, as a fraction of the
+     *                number of tweets added, requires 0 < epsilon < 1
+     * @param delta probability that a frequency estimate exceeds that bound,
+     *              requires 0 < delta < 1
+     */
+    public TweetSketches(double relativeError, double epsilon, double delta) {
+        this.mentionedUsers = HyperLogLog.withRelativeError(relativeError);
+        this.mentionCounts = CountMinSketch.withErrorBounds(epsilon, delta);
+        this.hashtagCounts = CountMinSketch.withErrorBounds(epsilon, delta);
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert mentionCounts.getWidth() == hashtagCounts.getWidth();
+        assert mentionCounts.getDepth() == hashtagCounts.getDepth();
+    }
+
+    /**
+     * Add a tweet to the statistics.
+     *
+     * @param tweet tweet to add
+     */
+    public void add(Tweet tweet) {
+        // count each user and hashtag once per tweet
+        Set<String> names = new HashSet<>();
+        TweetTokenizer.forEachMention(tweet.getText(), names::add);
+        for (String user : names) {
+            mentionedUsers.add(user);
+            mentionCounts.add(user);
+        }
+        names.clear();
+        TweetTokenizer.forEachHashtag(tweet.getText(), names::add);
+        for (String hashtag : names) {
+            hashtagCounts.add(hashtag);
+        }
+    }
+
+    /**
+     * Add tweets to the statistics.
+     *
+     * @param tweets tweets to add, not modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * Add the tweets summarized by other statistics to these.
+     *
+     * @param that statistics to merge in, not modified; requires that it was
+     *             made with the same error bounds as these statistics
+     */
+    public void merge(TweetSketches that) {
+        mentionedUsers.merge(that.mentionedUsers);
+        mentionCounts.merge(that.mentionCounts);
+        hashtagCounts.merge(that.hashtagCounts);
+        checkRep();
+    }
+
+    /**
+     * @return an estimate of Extract.getMentionedUsers(tweets).size() over the
+     *         tweets added
+     */
+    public long estimateMentionedUserCount() {
+        return mentionedUsers.estimate();
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return an estimate, never too small, of the number of tweets added that
+     *         @-mention username (case-insensitively)
+     */
+    public long estimateMentions(String username) {
+        return mentionCounts.estimate(username.toLowerCase());
+    }
+
+    /**
+     * @param hashtag a hashtag, without the #
+     * @return an estimate, never too small, of the number of tweets added that
+     *         use hashtag (case-insensitively)
+     */
+    public long estimateHashtagUses(String hashtag) {
+        return hashtagCounts.estimate(hashtag.toLowerCase());
+    }
+}
@@ -0,0 +1,268 @@
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Save and load lists of tweets in a compact binary snapshot format, so a
+ * corpus can be reloaded without fetching and parsing JSON again.
+ *
+ * Format (all integers are unsigned LEB128 varints; "signed" ones are
+ * zigzag-encoded first):
+ * <pre>
+ *   magic        4 bytes "TWSN", then 1 byte version (1)
+ *   count        number of tweets
+ *   authors      number of distinct authors, then for each one its UTF-8
+ *                length and bytes
+ *   tweets       for each tweet, in order:
+ *                  signed difference of its id from the previous id
+ *                  index of its author in the author dictionary
+ *                  signed difference of its epoch second from the previous one
+ *                  nanosecond fraction of its timestamp
+ *                  UTF-8 length and bytes of its text
+ * </pre>
+ * The first tweet's differences are taken from 0.
+ */
+public class TweetSnapshot {
+
+    private static final byte[] MAGIC = { 'T', 'W', 'S', 'N' };
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private TweetSnapshot() {
+        // static methods only
+    }
+
+    /**
+     * Save tweets to a snapshot file, replacing it if it exists.
+     *
+     * @param tweets tweets to save, not modified
+     * @param file path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(List<Tweet> tweets, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(tweets, out);
+        }
+    }
+
+    /**
+     * Write tweets to a stream in the snapshot format.
+     *
+     * @param tweets tweets to save, not modified
+     * @param out stream to write to; flushed but not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(List<Tweet> tweets, OutputStream out) throws IOException {
+        // deduplicate authors first, so the dictionary can precede the tweets
+        Map<String, Integer> authorIds = new HashMap<>();
+        List<String> authors = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (!authorIds.containsKey(tweet.getAuthor())) {
+                authorIds.put(tweet.getAuthor(), authors.size());
+                authors.add(tweet.getAuthor());
+            }
+        }
+
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        buffered.write(MAGIC);
+        buffered.write(VERSION);
+        writeVarint(buffered, tweets.size());
+        writeVarint(buffered, authors.size());
+        for (String author : authors) {
+            writeBytes(buffered, author.getBytes(StandardCharsets.UTF_8));
+        }
+
+        long previousId = 0;
+        long previousSecond = 0;
+        for (Tweet tweet : tweets) {
+            Instant timestamp = tweet.getTimestamp();
+            writeVarint(buffered, zigzag(tweet.getId() - previousId));
+            writeVarint(buffered, authorIds.get(tweet.getAuthor()));
+            writeVarint(buffered, zigzag(timestamp.getEpochSecond() - previousSecond));
+            writeVarint(buffered, timestamp.getNano());
+            writeBytes(buffered, tweet.getText().getBytes(StandardCharsets.UTF_8));
+            previousId = tweet.getId();
+            previousSecond = timestamp.getEpochSecond();
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Load tweets from a snapshot file.
+     *
+     * @param file path of a file written by write()
+     * @return the saved tweets, in their saved order, as a compact TweetTable
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static TweetTable read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Read tweets in the snapshot format from a stream.
+     *
+     * @param in stream positioned at the start of a snapshot, which must be
+     *           the last thing in the stream: reads are buffered, so bytes
+     *           after the snapshot may be consumed and lost; not closed
+     * @return the saved tweets, in their saved order, as a compact TweetTable
+     * @throws IOException if the stream cannot be read or is not a snapshot
+     */
+    public static TweetTable read(InputStream in) throws IOException {
+        Input input = new Input(in);
+        for (byte b : MAGIC) {
+            if (input.readByte() != b) {
+                throw new IOException("not a tweet snapshot");
+            }
+        }
+        int version = input.readByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported tweet snapshot version " + version);
+        }
+
+        long count = input.readVarint();
+        String[] authors = new String[checkedSize(input.readVarint())];
+        for (int i = 0; i < authors.length; i++) {
+            int length = checkedSize(input.readVarint());
+            byte[] name = input.readBytes(length);
+            authors[i] = new String(name, input.lastOffset(), length, StandardCharsets.UTF_8);
+        }
+
+        TweetTable table = new TweetTable();
+        long id = 0;
+        long second = 0;
+        for (long i = 0; i < count; i++) {
+            id += unzigzag(input.readVarint());
+            long authorId = input.readVarint();
+            second += unzigzag(input.readVarint());
+            long nano = input.readVarint();
+            int length = checkedSize(input.readVarint());
+            if (authorId >= authors.length || nano >= 1_000_000_000) {
+                throw new IOException("corrupt tweet snapshot at tweet " + i);
+            }
+            byte[] text = input.readBytes(length);
+            table.add(id, authors[(int) authorId], second, (int) nano, text, input.lastOffset(), length);
+        }
+        return table;
+    }
+
+    private static long zigzag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static long unzigzag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static int checkedSize(long n) throws IOException {
+        if (n > Integer.MAX_VALUE - 8) {
+            throw new IOException("corrupt tweet snapshot: length " + n);
+        }
+        return (int) n;
+    }
+
+    private static void writeVarint(OutputStream out, long n) throws IOException {
+        while ((n & ~0x7FL) != 0) {
+            out.write((int) ((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        out.write((int) n);
+    }
+
+    private static void writeBytes(OutputStream out, byte[] bytes) throws IOException {
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * A buffered reader of bytes and varints from an InputStream.
+     * Unsynchronized, unlike BufferedInputStream and DataInputStream.
+     */
+    private static class Input {
+
+        private final InputStream in;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private int lastOffset;
+
+        Input(InputStream in) {
+            this.in = in;
+        }
+
+        int readByte() throws IOException {
+            if (position == limit && !fill(1)) {
+                throw new EOFException("truncated tweet snapshot");
+            }
+            return buffer[position++];
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("corrupt tweet snapshot: varint too long");
+        }
+
+        /**
+         * Read length bytes. They are valid until the next read, in the
+         * returned array starting at lastOffset().
+         */
+        byte[] readBytes(int length) throws IOException {
+            if (limit - position < length && !fill(length)) {
+                throw new EOFException("truncated tweet snapshot");
+            }
+            lastOffset = position;
+            position += length;
+            return buffer;
+        }
+
+        int lastOffset() {
+            return lastOffset;
+        }
+
+        /*
+         * Make at least needed bytes available after position.
+         *
+         * @return false if the stream ended first
+         */
+        private boolean fill(int needed) throws IOException {
+            int available = limit - position;
+            if (needed > buffer.length) {
+                byte[] bigger = new byte[Math.max(needed, buffer.length * 2)];
+                System.arraycopy(buffer, position, bigger, 0, available);
+                buffer = bigger;
+            } else {
+                System.arraycopy(buffer, position, buffer, 0, available);
+            }
+            position = 0;
+            limit = available;
+            while (limit < needed) {
+                int read = in.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    return false;
+                }
+                limit += read;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A compact, append-only list of tweets stored by column.
+ *
+ * Instead of one Tweet object (with its own author String, text String and
+ * Instant) per tweet, a TweetTable keeps primitive columns: the id, an int
+ * index into a dictionary of distinct authors, the epoch second of the
+ * timestamp, and the offset and length of the text's UTF-8 bytes in a shared
+ * byte arena. Tweet objects are made on demand by get(), so a TweetTable can be
+ * passed anywhere a List<Tweet> is expected.
+ *
+ * Not threadsafe; callers must not add tweets while other threads read.
+ */
+public class TweetTable extends AbstractList<Tweet> implements RandomAccess {
+
+    /** Size of each full block of the text arena. */
+    private static final int CHUNK_SIZE = 1 << 24;
+    private static final int INITIAL_CHUNK_SIZE = 1 << 12;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] authorIds = new int[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private int[] nanos; // null until some timestamp has a fraction of a second
+    private long[] textOffsets = new long[INITIAL_CAPACITY];
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final List<String> authors = new ArrayList<>();
+    private final Map<String, Integer> authorIndex = new HashMap<>();
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int chunkFill;
+
+    // Abstraction function:
+    //   AF(ids, authorIds, epochSeconds, nanos, textOffsets, textLengths, size,
+    //      authors, chunks) =
+    //       the list of tweets t_0 .. t_{size-1} where t_i has id ids[i],
+    //       author authors[authorIds[i]], timestamp
+    //       epochSeconds[i] + (nanos == null ? 0 : nanos[i]) nanoseconds, and
+    //       text the UTF-8 decoding of textLengths[i] bytes starting at byte
+    //       textOffsets[i] % CHUNK_SIZE of chunks[textOffsets[i] / CHUNK_SIZE]
+    //
+    // Representation invariant:
+    //   every column has length >= size, and nanos is null or as long as ids
+    //   0 <= authorIds[i] < authors.size() for i < size
+    //   authorIndex maps authors[j] to j, and authors are distinct
+    //   each text lies entirely within one chunk
+    //   every chunk but the last has length CHUNK_SIZE
+    //   0 <= chunkFill <= length of the last chunk, or 0 if there are no chunks
+    //
+    // Safety from rep exposure:
+    //   all fields are private; columns and chunks are never returned;
+    //   get() returns a new immutable Tweet, and getters return immutable
+    //   values.
+
+    /**
+     * Make an empty table.
+     */
+    public TweetTable() {
+        checkRep();
+    }
+
+    /**
+     * Make a table holding a list of tweets.
+     *
+     * @param tweets tweets to add, in order; not modified
+     */
+    public TweetTable(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert size <= ids.length;
+        assert ids.length == authorIds.length && ids.length == epochSeconds.length
+                && ids.length == textOffsets.length && ids.length == textLengths.length;
+        assert nanos == null || nanos.length == ids.length;
+        assert authors.size() == authorIndex.size();
+        assert 0 <= chunkFill && chunkFill <= CHUNK_SIZE;
+    }
+
+    /**
+     * Append a tweet to the end of this table.
+     *
+     * @param tweet tweet to add
+     * @return true
+     */
+    @Override public boolean add(Tweet tweet) {
+        Instant timestamp = tweet.getTimestamp();
+        byte[] text = tweet.getText().getBytes(StandardCharsets.UTF_8);
+        add(tweet.getId(), tweet.getAuthor(), timestamp.getEpochSecond(), timestamp.getNano(), text, 0, text.length);
+        return true;
+    }
+
+    /**
+     * Append a tweet to the end of this table, given its fields.
+     *
+     * @param id unique identifier for the tweet
+     * @param author Twitter username who wrote the tweet
+     * @param epochSecond timestamp of the tweet, in whole seconds since the epoch
+     * @param nano fraction of a second of the timestamp, requires 0 <= nano < 1e9
+     * @param utf8 array holding the UTF-8 encoding of the tweet's text
+     * @param offset start of the text in utf8
+     * @param length number of bytes of text in utf8
+     */
+    void add(long id, String author, long epochSecond, int nano, byte[] utf8, int offset, int length) {
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        authorIds[size] = internAuthor(author);
+        epochSeconds[size] = epochSecond;
+        if (nano != 0 && nanos == null) {
+            nanos = new int[ids.length];
+        }
+        if (nanos != null) {
+            nanos[size] = nano;
+        }
+        textOffsets[size] = appendText(utf8, offset, length);
+        textLengths[size] = length;
+        size++;
+        modCount++;
+        checkRep();
+    }
+
+    @Override public int size() {
+        return size;
+    }
+
+    /**
+     * Get a tweet in this table. Each call makes a new Tweet object.
+     *
+     * @param index position of the tweet, requires 0 <= index < size()
+     * @return the tweet at that position
+     */
+    @Override public Tweet get(int index) {
+        checkIndex(index);
+        return new Tweet(ids[index], authors.get(authorIds[index]), getText(index), getTimestamp(index));
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return id of the tweet at that position
+     */
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return author of the tweet at that position
+     */
+    public String getAuthor(int index) {
+        checkIndex(index);
+        return authors.get(authorIds[index]);
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return index of the tweet's author in this table's author dictionary:
+     *         tweets have the same author id iff their authors are equal strings
+     */
+    public int getAuthorId(int index) {
+        checkIndex(index);
+        return authorIds[index];
+    }
+
+    /**
+     * @return number of distinct authors in this table
+     */
+    public int authorCount() {
+        return authors.size();
+    }
+
+    /**
+     * @param authorId an author id, requires 0 <= authorId < authorCount()
+     * @return the author with that id
+     */
+    public String authorName(int authorId) {
+        return authors.get(authorId);
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return text of the tweet at that position
+     */
+    public String getText(int index) {
+        checkIndex(index);
+        long offset = textOffsets[index];
+        byte[] chunk = chunks.get((int) (offset / CHUNK_SIZE));
+        return new String(chunk, (int) (offset % CHUNK_SIZE), textLengths[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return timestamp of the tweet at that position, in whole seconds since
+     *         the epoch (rounded down)
+     */
+    public long getEpochSecond(int index) {
+        checkIndex(index);
+        return epochSeconds[index];
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return timestamp of the tweet at that position
+     */
+    public Instant getTimestamp(int index) {
+        checkIndex(index);
+        return Instant.ofEpochSecond(epochSeconds[index], nanos == null ? 0 : nanos[index]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    /*
+     * @return the id of author in the dictionary, adding it if needed
+     */
+    private int internAuthor(String author) {
+        Integer id = authorIndex.get(author);
+        if (id == null) {
+            id = authors.size();
+            authors.add(author);
+            authorIndex.put(author, id);
+        }
+        return id;
+    }
+
+    /*
+     * Copy text into the arena, starting a new chunk if it does not fit in the
+     * current one. Only the last chunk may be shorter than CHUNK_SIZE; it grows
+     * as it fills.
+     *
+     * @return offset of the copy in the arena
+     */
+    private long appendText(byte[] text, int start, int length) {
+        if (length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("tweet text longer than " + CHUNK_SIZE + " bytes");
+        }
+        if (chunks.isEmpty() || chunkFill + length > CHUNK_SIZE) {
+            chunks.add(new byte[Math.max(INITIAL_CHUNK_SIZE, length)]);
+            chunkFill = 0;
+        }
+        int last = chunks.size() - 1;
+        byte[] chunk = chunks.get(last);
+        if (chunkFill + length > chunk.length) {
+            chunk = Arrays.copyOf(chunk, Math.min(CHUNK_SIZE, Math.max(chunk.length * 2, chunkFill + length)));
+            chunks.set(last, chunk);
+        }
+        long offset = (long) last * CHUNK_SIZE + chunkFill;
+        System.arraycopy(text, start, chunk, chunkFill, length);
+        chunkFill += length;
+        return offset;
+    }
+
+    /*
+     * Grow every column to hold at least capacity rows.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        authorIds = Arrays.copyOf(authorIds, newCapacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, newCapacity);
+        if (nanos != null) {
+            nanos = Arrays.copyOf(nanos, newCapacity);
+        }
+        textOffsets = Arrays.copyOf(textOffsets, newCapacity);
+        textLengths = Arrays.copyOf(textLengths, newCapacity);
+    }
+}
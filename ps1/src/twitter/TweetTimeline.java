@@ -0,0 +1,146 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable list of tweets kept in timestamp order, for answering many
+ * timespan queries over the same tweets.
+ *
+ * Timestamps are also kept as epoch milliseconds in a primitive array, so a
+ * timespan query is two binary searches and returns a view, and the timespan
+ * of all the tweets is known without scanning them.
+ */
+public class TweetTimeline {
+
+    private final List<Tweet> tweets;
+    private final long[] millis;
+
+    // Abstraction function:
+    //   AF(tweets, millis) = the tweets in tweets, ordered by timestamp, with
+    //                        tweets sharing a timestamp in their original order
+    //
+    // Representation invariant:
+    //   millis.length == tweets.size()
+    //   millis[i] == tweets.get(i).getTimestamp().toEpochMilli(), rounded down
+    //   tweets is sorted by timestamp, so millis is nondecreasing
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   tweets is an unmodifiable copy, and views of it are unmodifiable;
+    //   millis is never returned.
+
+    /**
+     * Make a timeline of a list of tweets.
+     *
+     * @param tweets a list of tweets with distinct ids, not modified by this
+     *               constructor; later changes to it do not affect the timeline
+     */
+    public TweetTimeline(List<Tweet> tweets) {
+        List<Tweet> sorted = new ArrayList<>(tweets);
+        sorted.sort(Comparator.comparing(Tweet::getTimestamp));
+        this.tweets = Collections.unmodifiableList(sorted);
+        this.millis = new long[sorted.size()];
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] = floorMillis(sorted.get(i).getTimestamp());
+        }
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert millis.length == tweets.size();
+        for (int i = 1; i < millis.length; i++) {
+            assert millis[i - 1] <= millis[i];
+        }
+    }
+
+    /**
+     * @return number of tweets in this timeline
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the tweets in this timeline, in timestamp order; an unmodifiable list
+     */
+    public List<Tweet> getTweets() {
+        return tweets;
+    }
+
+    /**
+     * Get the time period spanned by the tweets, in constant time.
+     *
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in this timeline, or an interval of length 0 if the
+     *         timeline is empty.
+     */
+    public Timespan getTimespan() {
+        if (tweets.isEmpty()) {
+            Instant now = Instant.now();
+            return new Timespan(now, now);
+        }
+        return new Timespan(tweets.get(0).getTimestamp(), tweets.get(tweets.size() - 1).getTimestamp());
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     *
+     * @param timespan timespan
+     * @return all and only the tweets in this timeline that were sent during the
+     *         timespan (inclusive of its endpoints), in timestamp order; an
+     *         unmodifiable view of this timeline
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+
+        // first tweet at or after start
+        int from = lowerBound(floorMillis(start));
+        while (from < millis.length && tweets.get(from).getTimestamp().isBefore(start)) {
+            from++;
+        }
+        // one past the last tweet at or before end
+        int to = lowerBound(floorMillis(end) + 1);
+        while (to > from && tweets.get(to - 1).getTimestamp().isAfter(end)) {
+            to--;
+        }
+        return tweets.subList(from, Math.max(from, to));
+    }
+
+    /*
+     * @return the least index i with millis[i] >= key, or millis.length if there
+     *         is none
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = millis.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (millis[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * @return milliseconds since the epoch, rounded down, saturating instead of
+     *         overflowing for instants far from the epoch
+     */
+    private static long floorMillis(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        if (seconds >= Long.MAX_VALUE / 1000) {
+            return Long.MAX_VALUE - 1;
+        } else if (seconds <= Long.MIN_VALUE / 1000) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1000 + instant.getNano() / 1_000_000;
+    }
+}
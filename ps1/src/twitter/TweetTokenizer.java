@@ -0,0 +1,128 @@
+package twitter;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * TweetTokenizer finds @-mentions and #hashtags in tweet text with a single
+ * pass over its characters, without regular expressions or splitting the text.
+ *
+ * A mention (or hashtag) is a whitespace-delimited word made of "@" (or "#")
+ * followed by a nonempty sequence of letters (A-Z or a-z), digits, underscore
+ * ("_") or hyphen ("-"); the same words that match "@([A-Za-z0-9_-]+)" after
+ * splitting the text on "\\s". Names are reported in lowercase, once per
+ * occurrence.
+ */
+class TweetTokenizer {
+
+    private TweetTokenizer() {
+        // static methods only
+    }
+
+    /**
+     * Report the usernames @-mentioned in a tweet.
+     *
+     * @param text tweet text
+     * @param action called with each mentioned username, in lowercase, in the
+     *               order they appear in text
+     */
+    static void forEachMention(String text, Consumer<? super String> action) {
+        scan(text, '@', (start, end, hasUpperCase) -> action.accept(lowerCase(text, start, end, hasUpperCase)));
+    }
+
+    /**
+     * Report the usernames @-mentioned in a tweet by their Usernames ids,
+     * without copying them out of the text.
+     *
+     * @param text tweet text
+     * @param action called with the Usernames id of each mentioned username,
+     *               in the order they appear in text
+     */
+    static void forEachMentionId(String text, IntConsumer action) {
+        scan(text, '@', (start, end, hasUpperCase) -> action.accept(Usernames.id(text, start, end)));
+    }
+
+    /**
+     * Report the hashtags in a tweet.
+     *
+     * @param text tweet text
+     * @param action called with each hashtag without its "#", in lowercase, in
+     *               the order they appear in text
+     */
+    static void forEachHashtag(String text, Consumer<? super String> action) {
+        scan(text, '#', (start, end, hasUpperCase) -> action.accept(lowerCase(text, start, end, hasUpperCase)));
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c may appear in a Twitter username, as defined by
+     *         Tweet.getAuthor()'s spec
+     */
+    static boolean isUsernameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c matches the regex \s
+     */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /*
+     * Receives the name in a word found by scan(), as a range of the text.
+     */
+    @FunctionalInterface
+    private interface NameAction {
+        void accept(int start, int end, boolean hasUpperCase);
+    }
+
+    /*
+     * Report every word of text made of sigil followed by one or more username
+     * characters, by the range of text after the sigil.
+     */
+    private static void scan(String text, char sigil, NameAction action) {
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            // i is at the start of a word
+            if (text.charAt(i) == sigil) {
+                int start = i + 1;
+                int end = start;
+                boolean hasUpperCase = false;
+                char c;
+                while (end < length && isUsernameChar(c = text.charAt(end))) {
+                    hasUpperCase |= c >= 'A' && c <= 'Z';
+                    end++;
+                }
+                if (end > start && (end == length || isSpace(text.charAt(end)))) {
+                    action.accept(start, end, hasUpperCase);
+                }
+                i = end;
+            }
+            // skip the rest of the word and the whitespace after it
+            while (i < length && !isSpace(text.charAt(i))) {
+                i++;
+            }
+            while (i < length && isSpace(text.charAt(i))) {
+                i++;
+            }
+        }
+    }
+
+    /*
+     * @return text[start..end) with ASCII letters in lowercase
+     */
+    private static String lowerCase(String text, int start, int end, boolean hasUpperCase) {
+        if (!hasUpperCase) {
+            return text.substring(start, end);
+        }
+        char[] name = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            name[i - start] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,211 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A mutable sliding time window over a live feed of tweets, with analytics
+ * kept up to date as tweets enter and leave it.
+ *
+ * The window ends at the latest time it has been advanced to (by add() or
+ * advanceTo()) and covers the given width before that, inclusive at both
+ * ends. Mentioned users, hashtag counts and the follows graph are updated
+ * incrementally as each tweet enters or leaves the window, so queries take
+ * time proportional to the answer (or O(n log k) for top-k rankings over n
+ * candidates) instead of a pass over every tweet in the window.
+ *
+ * Not threadsafe; callers must not add tweets and query concurrently.
+ */
+public class TweetWindow {
+
+    private final Duration width;
+    private final PriorityQueue<Tweet> tweets = new PriorityQueue<>(Comparator.comparing(Tweet::getTimestamp));
+    private final Map<String, int[]> mentionCounts = new HashMap<>();
+    private final Map<String, int[]> hashtagCounts = new HashMap<>();
+    private final IncrementalSocialNetwork network;
+    private Instant end;
+
+    // Abstraction function:
+    //   AF(width, tweets, end, ...) =
+    //       the tweets in tweets, which are those added whose timestamps lie
+    //       in [end - width, end]; or an empty window not yet started if
+    //       end == null
+    //
+    // Representation invariant:
+    //   end == null implies tweets is empty
+    //   every tweet in tweets has a timestamp in [end - width, end]
+    //   mentionCounts[u][0] == number of @-mentions of u in tweets, with a key
+    //     for exactly the users mentioned at least once
+    //   hashtagCounts[h][0] == number of tweets in tweets that use hashtag h,
+    //     with a key for exactly the hashtags used at least once
+    //   network holds exactly the tweets in tweets
+    //   usernames and hashtags are lowercase
+    //
+    // Safety from rep exposure:
+    //   all fields are private, and all but end are final;
+    //   Tweet and Instant are immutable, and every query returns a new
+    //   collection.
+
+    /**
+     * Make an empty window that uses the default hashtag popularity limit,
+     * SocialNetwork.DEFAULT_MAX_USERS_PER_HASHTAG, for its follows graph.
+     *
+     * @param width length of time the window covers, requires width >= 0
+     */
+    public TweetWindow(Duration width) {
+        this(width, SocialNetwork.DEFAULT_MAX_USERS_PER_HASHTAG);
+    }
+
+    /**
+     * Make an empty window.
+     *
+     * @param width length of time the window covers, requires width >= 0
+     * @param maxUsersPerHashtag hashtags used by more than this many authors
+     *                           in the window are not evidence of following
+     */
+    public TweetWindow(Duration width, int maxUsersPerHashtag) {
+        if (width.isNegative()) {
+            throw new IllegalArgumentException("requires width >= 0");
+        }
+        this.width = width;
+        this.network = new IncrementalSocialNetwork(maxUsersPerHashtag);
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert end != null || tweets.isEmpty();
+        assert tweets.isEmpty() || !tweets.peek().getTimestamp().isBefore(end.minus(width));
+    }
+
+    /**
+     * Add a tweet to the window. If it is later than the end of the window,
+     * the window first advances to its timestamp.
+     *
+     * @param tweet tweet from the feed; tweets may arrive out of order
+     * @return true if the tweet was added, false if it is already too old to
+     *         be in the window
+     */
+    public boolean add(Tweet tweet) {
+        Instant timestamp = tweet.getTimestamp();
+        if (end == null || timestamp.isAfter(end)) {
+            advanceTo(timestamp);
+        } else if (timestamp.isBefore(end.minus(width))) {
+            return false;
+        }
+        tweets.add(tweet);
+        network.add(tweet);
+        TweetTokenizer.forEachMention(tweet.getText(), user -> increment(mentionCounts, user));
+        Set<String> hashtags = new HashSet<>();
+        TweetTokenizer.forEachHashtag(tweet.getText(), hashtags::add);
+        for (String hashtag : hashtags) {
+            increment(hashtagCounts, hashtag);
+        }
+        checkRep();
+        return true;
+    }
+
+    /**
+     * Move the end of the window forward, removing tweets that are now too
+     * old. Time never moves backward: an earlier instant leaves the window
+     * unchanged.
+     *
+     * @param now new end of the window
+     */
+    public void advanceTo(Instant now) {
+        if (end != null && !now.isAfter(end)) {
+            return;
+        }
+        end = now;
+        Instant start = end.minus(width);
+        while (!tweets.isEmpty() && tweets.peek().getTimestamp().isBefore(start)) {
+            evict(tweets.poll());
+        }
+        checkRep();
+    }
+
+    /*
+     * Undo everything add() recorded about a tweet that has left the window.
+     */
+    private void evict(Tweet tweet) {
+        network.remove(tweet);
+        TweetTokenizer.forEachMention(tweet.getText(), user -> decrement(mentionCounts, user));
+        Set<String> hashtags = new HashSet<>();
+        TweetTokenizer.forEachHashtag(tweet.getText(), hashtags::add);
+        for (String hashtag : hashtags) {
+            decrement(hashtagCounts, hashtag);
+        }
+    }
+
+    private static void increment(Map<String, int[]> counts, String key) {
+        counts.computeIfAbsent(key, k -> new int[1])[0]++;
+    }
+
+    private static void decrement(Map<String, int[]> counts, String key) {
+        if (--counts.get(key)[0] == 0) {
+            counts.remove(key);
+        }
+    }
+
+    /**
+     * @return number of tweets in the window
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the tweets in the window, in no particular order
+     */
+    public List<Tweet> getTweets() {
+        return new ArrayList<>(tweets);
+    }
+
+    /**
+     * @return the same set as Extract.getMentionedUsers(getTweets())
+     */
+    public Set<String> getMentionedUsers() {
+        return new HashSet<>(mentionCounts.keySet());
+    }
+
+    /**
+     * Find the k hashtags used by the most tweets in the window.
+     *
+     * @param k number of hashtags to return, requires k >= 0
+     * @return up to k lowercase hashtags (without the #), most used first,
+     *         breaking ties alphabetically
+     */
+    public List<String> topHashtags(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        return SocialNetwork.rankByFollowers(hashtagCounts, k);
+    }
+
+    /**
+     * Find the k users with the most followers in the window's follows graph.
+     *
+     * @param k number of users to return, requires k >= 0
+     * @return the same list as SocialNetwork.influencers(getFollowsGraph(), k)
+     */
+    public List<String> influencers(int k) {
+        return network.influencers(k);
+    }
+
+    /**
+     * @return a new social network equal to SocialNetwork.guessFollowsGraph
+     *         of the tweets in the window, with this window's hashtag
+     *         popularity limit
+     */
+    public Map<String, Set<String>> getFollowsGraph() {
+        return network.getFollowsGraph();
+    }
+}
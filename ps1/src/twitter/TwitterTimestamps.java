@@ -0,0 +1,172 @@
+package twitter;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * TwitterTimestamps parses the "created_at" timestamps found in Twitter JSON,
+ * such as "Wed Feb 17 10:00:00 +0000 2016".
+ *
+ * Well-formed timestamps are decoded field by field straight to epoch seconds,
+ * without building a ZonedDateTime. Anything else falls back to a cached
+ * DateTimeFormatter, so the result (or the exception) is the same as
+ * ZonedDateTime.parse with the pattern "EEE MMM dd HH:mm:ss Z yyyy".
+ */
+public class TwitterTimestamps {
+
+    /** Pattern of the created_at field. */
+    public static final String CREATED_AT_PATTERN = "EEE MMM dd HH:mm:ss Z yyyy";
+
+    /** Formatter for the created_at field, for timestamps off the fast path. */
+    public static final DateTimeFormatter CREATED_AT_FORMAT =
+            DateTimeFormatter.ofPattern(CREATED_AT_PATTERN, Locale.US);
+
+    private static final int LENGTH = "Wed Feb 17 10:00:00 +0000 2016".length();
+    private static final String DAYS = "MonTueWedThuFriSatSun";
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private TwitterTimestamps() {
+        // static methods only
+    }
+
+    /**
+     * Parse a created_at timestamp.
+     *
+     * @param createdAt timestamp in the format "EEE MMM dd HH:mm:ss Z yyyy"
+     * @return the instant the timestamp denotes
+     * @throws java.time.format.DateTimeParseException if createdAt is not
+     *         in that format
+     */
+    public static Instant parse(String createdAt) {
+        return Instant.ofEpochSecond(parseEpochSecond(createdAt));
+    }
+
+    /**
+     * Parse a created_at timestamp to seconds since the epoch.
+     *
+     * @param createdAt timestamp in the format "EEE MMM dd HH:mm:ss Z yyyy"
+     * @return seconds from 1970-01-01T00:00:00Z to the instant the timestamp denotes
+     * @throws java.time.format.DateTimeParseException if createdAt is not
+     *         in that format
+     */
+    public static long parseEpochSecond(String createdAt) {
+        if (createdAt.length() != LENGTH
+                || createdAt.charAt(3) != ' ' || createdAt.charAt(7) != ' '
+                || createdAt.charAt(10) != ' ' || createdAt.charAt(13) != ':'
+                || createdAt.charAt(16) != ':' || createdAt.charAt(19) != ' '
+                || createdAt.charAt(25) != ' ') {
+            return slowPath(createdAt);
+        }
+        int month = indexOfName(MONTHS, createdAt, 4) + 1;
+        int day = digits(createdAt, 8, 2);
+        int hour = digits(createdAt, 11, 2);
+        int minute = digits(createdAt, 14, 2);
+        int second = digits(createdAt, 17, 2);
+        int offsetHours = digits(createdAt, 21, 2);
+        int offsetMinutes = digits(createdAt, 23, 2);
+        int year = digits(createdAt, 26, 4);
+        char sign = createdAt.charAt(20);
+
+        if (month < 1 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59
+                || offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59
+                || offsetHours * 60 + offsetMinutes > 18 * 60
+                || (sign != '+' && sign != '-') || year < 1) {
+            return slowPath(createdAt);
+        }
+
+        long epochDay = epochDay(year, month, day);
+        // EEE must agree with the date; 1970-01-01 was a Thursday
+        int dayOfWeek = (int) Math.floorMod(epochDay + 3, 7L);
+        if (indexOfName(DAYS, createdAt, 0) != dayOfWeek) {
+            return slowPath(createdAt);
+        }
+
+        int offsetSeconds = (offsetHours * 60 + offsetMinutes) * 60;
+        if (sign == '-') {
+            offsetSeconds = -offsetSeconds;
+        }
+        return epochDay * SECONDS_PER_DAY + (hour * 60 + minute) * 60 + second - offsetSeconds;
+    }
+
+    /*
+     * Parse with the general-purpose formatter.
+     */
+    private static long slowPath(String createdAt) {
+        return ZonedDateTime.parse(createdAt, CREATED_AT_FORMAT).toEpochSecond();
+    }
+
+    /*
+     * Find the three-letter name at text[start..start+3) in a run of
+     * concatenated three-letter names.
+     *
+     * @return index of the name in names, or -1 if it is not there
+     */
+    private static int indexOfName(String names, String text, int start) {
+        for (int i = 0; i < names.length(); i += 3) {
+            if (names.regionMatches(i, text, start, 3)) {
+                return i / 3;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Decode the decimal number in text[start..start+count).
+     *
+     * @return the number, or -1 if any of the characters is not an ASCII digit
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /*
+     * Number of days in a month of the proleptic Gregorian calendar.
+     */
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /*
+     * Days from 1970-01-01 to a date in the proleptic Gregorian calendar,
+     * using the same calculation as LocalDate.toEpochDay(). Requires year >= 0.
+     */
+    private static long epochDay(int year, int month, int day) {
+        final long daysFrom0000To1970 = 719528;
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            if (!leap) {
+                total--;
+            }
+        }
+        return total - daysFrom0000To1970;
+    }
+}
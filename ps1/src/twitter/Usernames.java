@@ -0,0 +1,266 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The shared, threadsafe table of canonical Twitter usernames used by Extract,
+ * Filter and SocialNetwork.
+ *
+ * Every distinct username, ignoring case, that is ingested with id() gets a
+ * dense int id 0, 1, 2, ... the first time any spelling of it is seen, and
+ * keeps it for the life of the JVM. Looking up a username seen before takes
+ * one hash probe, compares ignoring case, and allocates nothing, even for a
+ * username inside a larger string such as a tweet's text; so two usernames can
+ * be compared case-insensitively by comparing ids, and name(id) gives the one
+ * lowercase String for each user instead of a fresh toLowerCase() copy per
+ * tweet.
+ *
+ * The table only grows, and holds one lowercase name per user. Only usernames
+ * read from a corpus (tweet authors and @-mentions, or the users of a social
+ * network being converted) should be ingested with id(); queries about
+ * usernames that may not be in the corpus use find() and canonical(), which
+ * never add to the table, so client arguments cannot grow it.
+ */
+final class Usernames {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /**
+     * An open-addressing hash table from lowercase names to ids. Slots are
+     * filled at most once and never cleared; a full table is replaced by a
+     * larger copy.
+     */
+    private static final class Table {
+        final AtomicReferenceArray<String> names;
+        final int[] ids;
+        final int mask;
+
+        Table(int capacity) {
+            this.names = new AtomicReferenceArray<>(capacity);
+            this.ids = new int[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private static volatile Table table = new Table(INITIAL_CAPACITY);
+    private static volatile String[] names = new String[INITIAL_CAPACITY / 2];
+    private static int size;
+
+    // Abstraction function:
+    //   AF(table, names, size) = the users names[0 .. size-1], where user id
+    //       has lowercase username names[id]; table indexes each name by its
+    //       id
+    //
+    // Representation invariant:
+    //   table capacity is a power of two and more than twice size
+    //   names[0 .. size-1] are distinct, lowercase and nonnull
+    //   table has exactly size filled slots, and table.ids[s] is the id of
+    //     the name in each filled slot s
+    //
+    // Thread safety argument:
+    //   all writes happen while holding the class lock; table and names are
+    //   volatile and only ever replaced by fully built copies;
+    //   a slot's id is written before its name is set, and readers get the
+    //   name (a volatile read) before the id, so a reader that sees a name
+    //   sees its id and the names array holding it;
+    //   a reader that misses a name, or probes a table that has since been
+    //   replaced, falls back to the locked slow path in id(), which rechecks,
+    //   or in find() reports the name as not yet added, which is true of a
+    //   moment during the call.
+
+    private Usernames() {
+        // static methods only
+    }
+
+    /**
+     * Ingest a username from a corpus.
+     *
+     * @param username a Twitter username, as defined by Tweet.getAuthor()
+     * @return the id of username, ignoring case, adding it to the table if new
+     */
+    static int id(String username) {
+        return id(username, 0, username.length());
+    }
+
+    /**
+     * Ingest a username from a corpus.
+     *
+     * @param text a string containing a Twitter username at [start, end)
+     * @param start index of the first character of the username
+     * @param end index after the last character of the username, requires
+     *            start < end <= text.length()
+     * @return the id of text[start..end), ignoring case, adding it to the
+     *         table if new
+     */
+    static int id(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int id = probe(table, text, start, end, hash);
+        return id >= 0 ? id : add(text, start, end, hash);
+    }
+
+    /**
+     * Look up a username without adding it.
+     *
+     * @param username a string
+     * @return the id of username, ignoring case, or -1 if it has not been
+     *         added
+     */
+    static int find(String username) {
+        if (username.isEmpty()) {
+            return -1;
+        }
+        return probe(table, username, 0, username.length(), hash(username, 0, username.length()));
+    }
+
+    /**
+     * @param id an id returned by id()
+     * @return the lowercase username with that id
+     */
+    static String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param username a Twitter username, as defined by Tweet.getAuthor()
+     * @return username in lowercase: the same String object for every
+     *         spelling of username if it has been added, else a new String;
+     *         never adds username
+     */
+    static String canonical(String username) {
+        int id = find(username);
+        return id >= 0 ? names[id] : lowercase(username);
+    }
+
+    /**
+     * @return number of distinct usernames (ignoring case) added so far; ids
+     *         are 0 .. size()-1
+     */
+    static synchronized int size() {
+        return size;
+    }
+
+    private static char lowercase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /*
+     * Same as lowercase(text.subSequence(start, end).toString()).hashCode(),
+     * without the copies.
+     */
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + lowercase(text.charAt(i));
+        }
+        return h;
+    }
+
+    /*
+     * Mix the high bits of a String hash into the low bits used as a slot.
+     */
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9e3779b1;
+    }
+
+    /*
+     * @return the id of text[start..end) in t, ignoring case, or -1 if absent
+     */
+    private static int probe(Table t, CharSequence text, int start, int end, int hash) {
+        for (int slot = spread(hash) & t.mask; ; slot = (slot + 1) & t.mask) {
+            String name = t.names.get(slot);
+            if (name == null) {
+                return -1;
+            }
+            if (matches(name, hash, text, start, end)) {
+                return t.ids[slot];
+            }
+        }
+    }
+
+    private static boolean matches(String name, int hash, CharSequence text, int start, int end) {
+        if (name.length() != end - start || name.hashCode() != hash) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (name.charAt(i - start) != lowercase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Slow path: look the username up again under the lock, and add its
+     * lowercase form if it is still missing.
+     */
+    private static synchronized int add(CharSequence text, int start, int end, int hash) {
+        int existing = probe(table, text, start, end, hash);
+        if (existing >= 0) {
+            return existing;
+        }
+        String name = lowercase(text.subSequence(start, end).toString());
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            names = current;
+        }
+        current[size] = name;
+        int id = size++;
+        insert(name, id);
+        checkRep();
+        return id;
+    }
+
+    /*
+     * Add a name, known not to be in the table, growing the table if needed.
+     */
+    private static void insert(String name, int id) {
+        Table t = table;
+        if (2 * size >= t.ids.length) {
+            Table bigger = new Table(t.ids.length * 2);
+            for (int s = 0; s < t.ids.length; s++) {
+                String existing = t.names.get(s);
+                if (existing != null) {
+                    put(bigger, existing, t.ids[s]);
+                }
+            }
+            table = bigger;
+            t = bigger;
+        }
+        put(t, name, id);
+    }
+
+    private static void put(Table t, String name, int id) {
+        int slot = spread(name.hashCode()) & t.mask;
+        while (t.names.get(slot) != null) {
+            slot = (slot + 1) & t.mask;
+        }
+        t.ids[slot] = id;
+        t.names.set(slot, name);
+    }
+
+    /*
+     * @return s with ASCII letters in lowercase; s itself if it has none
+     *         (usernames are ASCII, as defined by Tweet.getAuthor())
+     */
+    private static String lowercase(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = s.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = lowercase(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return s;
+    }
+
+    // Check that the rep invariant is true; caller must hold the class lock
+    private static void checkRep() {
+        assert Integer.bitCount(table.ids.length) == 1;
+        assert 2 * size < table.ids.length;
+    }
+}
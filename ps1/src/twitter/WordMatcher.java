@@ -0,0 +1,219 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable.
+ * This class is internal to the rep of Filter, TweetIndex and TweetQuery.
+ *
+ * The one implementation of the word rule of Filter.containing(): the text is
+ * lowercased, every character other than a letter, digit, underscore or
+ * whitespace is deleted, and the result is split on spaces. words() gives
+ * those words for indexing; a WordMatcher tests whether a tweet contains any
+ * of a set of query words.
+ *
+ * The query words are lowercased once, up front, and kept in an
+ * open-addressing hash table; each tweet is then tokenized in place, hashing
+ * each word as it is scanned and comparing it character by character against
+ * the table, without building any strings or arrays. Only texts that the
+ * default locale may not lowercase the way ASCII folding does (texts with
+ * non-ASCII characters, or any text in a locale that maps ASCII letters
+ * elsewhere) are lowercased with toLowerCase() before the same scan.
+ */
+class WordMatcher {
+
+    /*
+     * Receives a word found by scan(), as a range of the scanned text.
+     */
+    private interface WordAction {
+        /**
+         * @param text the scanned text
+         * @param start index of the first character of the word's range
+         * @param end index after the last character of the word's range
+         * @param hash String hash of the word: the characters of the range
+         *             that isWordChar() keeps, folded to lowercase
+         * @param length number of characters the range keeps, > 0
+         * @return true to stop the scan
+         */
+        boolean accept(String text, int start, int end, int hash, int length);
+    }
+
+    private static final boolean ASCII_LOWERCASE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toLowerCase().equals("abcdefghijklmnopqrstuvwxyz");
+
+    private final char[][] table;
+    private final int[] hashes;
+    private final int mask;
+    private final WordAction lookup = this::contains;
+
+    // Abstraction function:
+    //   AF(table) = a test for tweets containing at least one of the query
+    //       words whose lowercase forms are in table
+    //
+    // Representation invariant:
+    //   table.length == hashes.length is a power of two, more than twice the
+    //     number of nonnull entries
+    //   every nonnull table[s] is a lowercased query word made only of word
+    //     characters, stored at or after slot spread(hashes[s]) & mask
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final, and none is returned.
+    //
+    // Thread safety argument:
+    //   all fields are final and never modified after construction, so a
+    //   WordMatcher may be shared by the threads of a parallel scan.
+
+    /**
+     * @param words query words, each a nonempty sequence of nonspace
+     *              characters; not modified
+     */
+    WordMatcher(List<String> words) {
+        int capacity = Integer.highestOneBit(Math.max(4, words.size() * 4 - 1)) << 1;
+        this.table = new char[capacity][];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        for (String word : words) {
+            String lowercase = word.toLowerCase();
+            // a word with other characters can never equal a stripped word
+            if (lowercase.chars().allMatch(c -> isWordChar((char) c))) {
+                put(lowercase.toCharArray(), lowercase.hashCode());
+            }
+        }
+        checkRep();
+    }
+
+    // Check that the rep invariant is true
+    private void checkRep() {
+        assert table.length == hashes.length;
+        assert Integer.bitCount(table.length) == 1;
+    }
+
+    private void put(char[] word, int hash) {
+        int slot = spread(hash) & mask;
+        while (table[slot] != null) {
+            if (hashes[slot] == hash && Arrays.equals(table[slot], word)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = word;
+        hashes[slot] = hash;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9e3779b1;
+    }
+
+    /*
+     * @return true iff lowercase character c survives the [^\w\s] deletion
+     *         and is not a space
+     */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_'
+                || (TweetTokenizer.isSpace(c) && c != ' ');
+    }
+
+    private static char fold(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Split tweet text into the words Filter.containing() compares against.
+     *
+     * @param text tweet text
+     * @return the nonempty words of text, in order, possibly with repeats
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        scan(text, (lowered, start, end, hash, length) -> {
+            char[] word = new char[length];
+            int w = 0;
+            for (int i = start; i < end; i++) {
+                char c = fold(lowered.charAt(i));
+                if (isWordChar(c)) {
+                    word[w++] = c;
+                }
+            }
+            words.add(new String(word));
+            return false;
+        });
+        return words;
+    }
+
+    /**
+     * @param tweet a tweet
+     * @return true iff the text of tweet, split into words as
+     *         Filter.containing() specifies, includes at least one query word
+     */
+    boolean matches(Tweet tweet) {
+        return scan(tweet.getText(), lookup);
+    }
+
+    /*
+     * Pass each word of text, as Filter.containing() splits it, to action.
+     *
+     * @return true iff action stopped the scan
+     */
+    private static boolean scan(String text, WordAction action) {
+        String lowered = ASCII_LOWERCASE && isAscii(text) ? text : text.toLowerCase();
+        final int length = lowered.length();
+        int start = 0;
+        int hash = 0;
+        int wordLength = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? lowered.charAt(i) : ' ';
+            if (c == ' ') {
+                if (wordLength > 0 && action.accept(lowered, start, i, hash, wordLength)) {
+                    return true;
+                }
+                start = i + 1;
+                hash = 0;
+                wordLength = 0;
+            } else {
+                char lower = fold(c);
+                if (isWordChar(lower)) {
+                    hash = 31 * hash + lower;
+                    wordLength++;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * @return true iff the word made of the kept, lowercased characters of
+     *         text[start..end) is a query word
+     */
+    private boolean contains(String text, int start, int end, int hash, int wordLength) {
+        for (int slot = spread(hash) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            char[] word = table[slot];
+            if (hashes[slot] != hash || word.length != wordLength) {
+                continue;
+            }
+            // the range keeps exactly word.length characters, so compare them
+            boolean equal = true;
+            int w = 0;
+            for (int i = start; i < end && equal; i++) {
+                char lower = fold(text.charAt(i));
+                if (isWordChar(lower)) {
+                    equal = word[w++] == lower;
+                }
+            }
+            if (equal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,250 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.json.JsonException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class AsyncTweetReaderTest {
+
+    /*
+     * Partition for AsyncTweetReader, against a local stand-in for
+     * Main.SAMPLE_SERVER:
+     * tweets served: 0, 1, > pageSize
+     * last page: full, partial
+     * response: complete, arrives in parts, HTTP error, not a JSON array
+     * download: runs to the end, interrupted while the buffer is full
+     * caller: pages with nextPage(), consumer with readTweetsFromWeb() or
+     *         forEachPage(), slow consumer, closes before the end
+     */
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private HttpServer server;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private static String tweet(int id) {
+        return "{\"id\": " + id + ", \"user\": {\"screen_name\": \"user" + id + "\"},"
+                + " \"text\": \"tweet number " + id + " #hype\","
+                + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    }
+
+    private static String tweets(int from, int to) {
+        List<String> objects = new ArrayList<>();
+        for (int id = from; id < to; id++) {
+            objects.add(tweet(id));
+        }
+        return String.join(", ", objects);
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serve("/none", "[]");
+        serve("/one", "[" + tweet(1) + "]");
+        serve("/seven", "[" + tweets(1, 8) + "]");
+        serve("/bad", "{\"not\": \"an array\"}");
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        // sends the first two tweets, then waits for the test to release the rest
+        server.createContext("/slow", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(("[" + tweets(1, 3) + ",").getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                body.write((tweets(3, 5) + "]").getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ioe) {
+                // the client hung up
+            }
+        });
+        server.start();
+    }
+
+    private void serve(String path, String json) {
+        server.createContext(path, exchange -> {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        });
+    }
+
+    @After
+    public void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http", "localhost", server.getAddress().getPort(), path);
+    }
+
+    private static List<Tweet> page(AsyncTweetReader reader) throws Exception {
+        return reader.nextPage().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        List<Long> ids = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets, complete response, nextPage()
+    @Test
+    public void testNoTweets() throws Exception {
+        try (AsyncTweetReader reader = new AsyncTweetReader(url("/none"), 3, 1)) {
+            assertTrue("expected end of tweets", page(reader).isEmpty());
+            assertTrue("expected end of tweets again", page(reader).isEmpty());
+        }
+    }
+
+    // covers 1 tweet, partial last page, nextPage()
+    @Test
+    public void testOneTweet() throws Exception {
+        try (AsyncTweetReader reader = new AsyncTweetReader(url("/one"), 3, 1)) {
+            List<Tweet> page = page(reader);
+            assertEquals("expected one tweet", Arrays.asList(1L), ids(page));
+            assertEquals("expected author", "user1", page.get(0).getAuthor());
+            assertTrue("expected end of tweets", page(reader).isEmpty());
+        }
+    }
+
+    // covers > pageSize tweets, partial last page, readTweetsFromWeb()
+    @Test
+    public void testPagesInOrder() throws Exception {
+        List<List<Long>> pages = new ArrayList<>();
+        AsyncTweetReader.readTweetsFromWeb(url("/seven"), 3, page -> pages.add(ids(page)))
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals("expected pages of 3, 3 and 1 tweets in order",
+                Arrays.asList(Arrays.asList(1L, 2L, 3L), Arrays.asList(4L, 5L, 6L), Arrays.asList(7L)), pages);
+    }
+
+    // covers response arrives in parts, full last page
+    @Test
+    public void testFirstPageBeforeResponseEnds() throws Exception {
+        try (AsyncTweetReader reader = new AsyncTweetReader(url("/slow"), 2, 1)) {
+            assertEquals("expected first page while the server waits", Arrays.asList(1L, 2L), ids(page(reader)));
+
+            release.countDown();
+            assertEquals("expected second page", Arrays.asList(3L, 4L), ids(page(reader)));
+            assertTrue("expected end of tweets", page(reader).isEmpty());
+        }
+    }
+
+    // covers closes before the end
+    @Test
+    public void testClose() throws Exception {
+        AsyncTweetReader reader = new AsyncTweetReader(url("/slow"), 2, 1);
+        assertEquals("expected first page", 2, page(reader).size());
+
+        reader.close();
+        assertTrue("expected no pages after close", page(reader).isEmpty());
+    }
+
+    // covers HTTP error
+    @Test
+    public void testServerError() throws Exception {
+        try (AsyncTweetReader reader = new AsyncTweetReader(url("/missing"), 3, 1)) {
+            page(reader);
+            fail("expected the page to fail");
+        } catch (ExecutionException ee) {
+            assertTrue("expected an I/O error", ee.getCause() instanceof UncheckedIOException);
+        }
+    }
+
+    // covers not a JSON array, readTweetsFromWeb()
+    @Test
+    public void testNotAnArray() throws Exception {
+        try {
+            AsyncTweetReader.readTweetsFromWeb(url("/bad"), 3, page -> fail("expected no pages"))
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("expected the read to fail");
+        } catch (ExecutionException ee) {
+            assertTrue("expected a JSON error", ee.getCause() instanceof JsonException);
+        }
+    }
+
+    // covers interrupted while the buffer is full
+    @Test
+    public void testInterruptFailsRemainingPages() throws Exception {
+        AtomicReference<Thread> downloader = new AtomicReference<>();
+        try (AsyncTweetReader reader = new AsyncTweetReader(url("/seven"), 1, 1, task -> {
+            Thread thread = new Thread(task);
+            downloader.set(thread);
+            thread.start();
+        })) {
+            Thread thread = downloader.get();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+            assertEquals("expected the buffered page", Arrays.asList(1L), ids(page(reader)));
+            try {
+                page(reader);
+                fail("expected the next page to fail");
+            } catch (ExecutionException ee) {
+                assertTrue("expected the interrupt", ee.getCause() instanceof InterruptedException);
+            }
+        }
+    }
+
+    // covers slow consumer, forEachPage()
+    @Test
+    public void testDownloadContinuesWhileConsumerWorks() throws Exception {
+        List<List<Long>> pages = new ArrayList<>();
+        boolean[] filledWhileConsuming = new boolean[1];
+        try (AsyncTweetReader reader = new AsyncTweetReader(url("/seven"), 1, 2)) {
+            reader.forEachPage(page -> {
+                if (pages.isEmpty()) {
+                    // the download must fill the buffer while this page is consumed
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+                    while (reader.bufferedPages() < 2 && System.nanoTime() < deadline) {
+                        Thread.yield();
+                    }
+                    filledWhileConsuming[0] = reader.bufferedPages() == 2;
+                }
+                pages.add(ids(page));
+            }).get(2 * TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        assertTrue("expected the buffer to fill while the consumer worked", filledWhileConsuming[0]);
+        assertEquals("expected all pages in order", 7, pages.size());
+        assertEquals("expected last page", Arrays.asList(7L), pages.get(6));
+    }
+}
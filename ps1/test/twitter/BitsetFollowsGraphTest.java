@@ -0,0 +1,103 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class BitsetFollowsGraphTest {
+
+    /*
+     * Partition for BitsetFollowsGraph:
+     * built from: tweets, map
+     * users: 0, > 0; mixed case usernames; self-mentions
+     * hashtags: shared by few users, by more than the limit
+     * queries: follows, followees, followerCount, common followees,
+     *          influencers, asMap; about users in the network, not in it
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tweets, 0 users
+    @Test
+    public void testEmpty() {
+        BitsetFollowsGraph graph = BitsetFollowsGraph.guessFollowsGraph(Collections.emptyList(), 10);
+
+        assertEquals("expected no users", 0, graph.userCount());
+        assertTrue("expected empty map", graph.asMap().isEmpty());
+        assertTrue("expected no influencers", graph.influencers(5).isEmpty());
+    }
+
+    // covers queries about users not in the network
+    @Test
+    public void testQueriesDoNotAddUsernames() {
+        BitsetFollowsGraph graph = BitsetFollowsGraph.guessFollowsGraph(
+                Arrays.asList(new Tweet(1, "bitsetTest_alyssa", "@bitsetTest_ben", d1)), 10);
+        int size = Usernames.size();
+
+        assertFalse("expected no edge", graph.follows("bitsetTest_alyssa", "bitsetTest_nobody"));
+        assertFalse("expected no edge", graph.follows("bitsetTest_nobody", "bitsetTest_ben"));
+        assertTrue("expected no followees", graph.followees("bitsetTest_nobody").isEmpty());
+        assertEquals("expected no followers", 0, graph.followerCount("bitsetTest_nobody"));
+        assertEquals("expected no common followees", 0, graph.commonFolloweeCount("bitsetTest_nobody", "bitsetTest_alyssa"));
+        assertNull("expected not a key", graph.asMap().get("bitsettest_nobody"));
+        assertFalse("expected not followed", graph.asMap().get("bitsettest_alyssa").contains("bitsettest_nobody"));
+        assertEquals("expected no new usernames", size, Usernames.size());
+        assertTrue("expected edge ignoring case", graph.follows("BITSETTEST_ALYSSA", "bitsettest_BEN"));
+    }
+
+    // covers tweets, mixed case, self-mentions, hashtags within and over the
+    //        limit, all queries
+    @Test
+    public void testFromTweets() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Alyssa", "@bbitdiddle @ALYSSA #mit #everyone", d1),
+                new Tweet(2, "bbitdiddle", "@Mike #mit #everyone", d1),
+                new Tweet(3, "carl", "@mike #everyone", d1),
+                new Tweet(4, "dana", "#everyone", d1));
+        BitsetFollowsGraph graph = BitsetFollowsGraph.guessFollowsGraph(tweets, 3);
+
+        assertEquals("expected same graph as SocialNetwork", SocialNetwork.guessFollowsGraph(tweets, 3), graph.asMap());
+        assertTrue("expected mention edge ignoring case", graph.follows("ALYSSA", "BBitdiddle"));
+        assertTrue("expected hashtag edge", graph.follows("bbitdiddle", "alyssa"));
+        assertFalse("expected no self-follow", graph.follows("alyssa", "alyssa"));
+        assertFalse("expected too popular hashtag ignored", graph.follows("dana", "carl"));
+        assertEquals("expected followees", set("alyssa", "mike"), graph.followees("bbitdiddle"));
+        assertEquals("expected two followers", 2, graph.followerCount("MIKE"));
+        assertEquals("expected common followees", set("mike"), graph.commonFollowees("bbitdiddle", "carl"));
+        assertEquals("expected common followee count", 1, graph.commonFolloweeCount("bbitdiddle", "carl"));
+        assertEquals("expected same influencers as SocialNetwork",
+                SocialNetwork.influencers(graph.asMap(), 3), graph.influencers(3));
+        assertNull("expected lookups by lowercase key only", graph.asMap().get("Alyssa"));
+    }
+
+    // covers map, large generated network
+    @Test
+    public void testFromMapMatchesGenerated() {
+        List<Tweet> tweets = new TweetGenerator(6005, 2000, 20).next(20_000);
+        Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(tweets, 500);
+        BitsetFollowsGraph fromTweets = BitsetFollowsGraph.guessFollowsGraph(tweets, 500);
+        BitsetFollowsGraph fromMap = BitsetFollowsGraph.fromMap(expected);
+
+        assertEquals("expected same graph from tweets", expected, new HashMap<>(fromTweets.asMap()));
+        assertEquals("expected same graph from map", expected, fromMap.asMap());
+        assertEquals("expected same influencers", SocialNetwork.influencers(expected, 10), fromMap.influencers(10));
+    }
+}
@@ -0,0 +1,100 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompressedBitSetTest {
+
+    /*
+     * Partition for CompressedBitSet:
+     * chunks: none, one, several
+     * chunk density: sparse (array), dense (bitmap), crossing between them by
+     *   add, remove, or, and
+     * operations compared against java.util.BitSet
+     */
+
+    private static void assertSame(String message, BitSet expected, CompressedBitSet actual) {
+        assertArrayEquals(message, expected.stream().toArray(), actual.toArray());
+        assertEquals(message, expected.cardinality(), actual.cardinality());
+        PrimitiveIterator.OfInt iterator = actual.iterator();
+        for (int value : expected.stream().toArray()) {
+            assertEquals(message, value, iterator.nextInt());
+        }
+        assertFalse(message, iterator.hasNext());
+    }
+
+    private static void fill(Random random, int count, int bound, BitSet expected, CompressedBitSet actual) {
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(bound);
+            assertEquals("expected add to report change", !expected.get(value), actual.add(value));
+            expected.set(value);
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no chunks
+    @Test
+    public void testEmpty() {
+        CompressedBitSet set = new CompressedBitSet();
+
+        assertTrue("expected empty", set.isEmpty());
+        assertFalse("expected no value", set.contains(0));
+        assertFalse("expected no iterator values", set.iterator().hasNext());
+        assertFalse("expected nothing removed", set.remove(7));
+    }
+
+    // covers one chunk, sparse, dense, crossing by add and remove
+    @Test
+    public void testAddRemoveAcrossDensities() {
+        Random random = new Random(6005);
+        BitSet expected = new BitSet();
+        CompressedBitSet actual = new CompressedBitSet();
+        fill(random, 3000, 1 << 16, expected, actual);
+        assertSame("expected sparse chunk", expected, actual);
+
+        fill(random, 20_000, 1 << 16, expected, actual);
+        assertSame("expected dense chunk", expected, actual);
+
+        for (int value = 0; value < (1 << 16); value += 2) {
+            assertEquals("expected remove to report change", expected.get(value), actual.remove(value));
+            expected.clear(value);
+        }
+        for (int value = 1; value < (1 << 16); value += 4) {
+            actual.remove(value);
+            expected.clear(value);
+        }
+        assertSame("expected back to sparse chunk", expected, actual);
+    }
+
+    // covers several chunks, or and and across densities
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(6031);
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        CompressedBitSet a = new CompressedBitSet();
+        CompressedBitSet b = new CompressedBitSet();
+        fill(random, 50_000, 1 << 18, expectedA, a);
+        fill(random, 2000, 1 << 19, expectedB, b);
+        fill(random, 10_000, 1 << 16, expectedB, b);
+
+        BitSet expectedAnd = (BitSet) expectedA.clone();
+        expectedAnd.and(expectedB);
+        assertSame("expected intersection", expectedAnd, a.and(b));
+        assertEquals("expected intersection size", expectedAnd.cardinality(), b.andCardinality(a));
+
+        a.or(b);
+        expectedA.or(expectedB);
+        assertSame("expected union", expectedA, a);
+        assertSame("expected argument unchanged", expectedB, b);
+    }
+}
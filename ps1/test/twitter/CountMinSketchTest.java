@@ -0,0 +1,94 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CountMinSketchTest {
+
+    /*
+     * Partition for CountMinSketch:
+     * strings added: 0, 1, many with a skewed distribution
+     * count per add: 1, > 1
+     * merge: matching dimensions, mismatched dimensions
+     *
+     * estimates are never below the true count, and rarely more than
+     * epsilon * total above it
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 strings
+    @Test
+    public void testEmpty() {
+        CountMinSketch sketch = new CountMinSketch(16, 4);
+
+        assertEquals("expected zero", 0, sketch.estimate("hype"));
+        assertEquals("expected zero total", 0, sketch.getTotal());
+    }
+
+    // covers 1 string, count > 1
+    @Test
+    public void testOneString() {
+        CountMinSketch sketch = new CountMinSketch(16, 4);
+        sketch.add("hype", 5);
+        sketch.add("hype");
+
+        assertEquals("expected exact count", 6, sketch.estimate("hype"));
+        assertEquals("expected total", 6, sketch.getTotal());
+    }
+
+    // covers many strings with a skewed distribution, error bounds
+    @Test
+    public void testErrorBounds() {
+        double epsilon = 0.001;
+        CountMinSketch sketch = CountMinSketch.withErrorBounds(epsilon, 0.01);
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(6005);
+        for (int i = 0; i < 200_000; i++) {
+            // roughly Zipfian: small numbers are much more common
+            String user = "user" + (int) Math.pow(10_000, random.nextDouble());
+            sketch.add(user);
+            exact.merge(user, 1, Integer::sum);
+        }
+
+        int tooHigh = 0;
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue("expected no undercount for " + entry.getKey(), estimate >= entry.getValue());
+            if (estimate - entry.getValue() > epsilon * sketch.getTotal()) {
+                tooHigh++;
+            }
+        }
+        assertTrue("expected at most 1% of estimates over the bound, but " + tooHigh + " were",
+                tooHigh <= 0.01 * exact.size());
+    }
+
+    // covers merge with matching dimensions
+    @Test
+    public void testMerge() {
+        CountMinSketch shard1 = new CountMinSketch(64, 3);
+        CountMinSketch shard2 = new CountMinSketch(64, 3);
+        shard1.add("alyssa", 3);
+        shard2.add("alyssa", 4);
+        shard2.add("bbitdiddle");
+
+        shard1.merge(shard2);
+        assertTrue("expected combined count", shard1.estimate("alyssa") >= 7);
+        assertTrue("expected count from other shard", shard1.estimate("bbitdiddle") >= 1);
+        assertEquals("expected combined total", 8, shard1.getTotal());
+    }
+
+    // covers merge with mismatched dimensions
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeMismatched() {
+        new CountMinSketch(64, 3).merge(new CountMinSketch(64, 4));
+    }
+}
@@ -0,0 +1,66 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CsrFollowsGraphTest {
+
+    /*
+     * Partition for CsrFollowsGraph:
+     * users: 0, > 1
+     * users only followed (not keys), users following nobody
+     * usernames differing only in case, self-follows
+     */
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 users
+    @Test
+    public void testEmpty() {
+        CsrFollowsGraph graph = new CsrFollowsGraph(Collections.emptyMap());
+
+        assertEquals("expected no users", 0, graph.vertexCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertEquals("expected unknown user", -1, graph.id("alyssa"));
+    }
+
+    // covers > 1 users, only followed, following nobody, mixed case keys,
+    //        self-follows
+    @Test
+    public void testStructure() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("Alyssa", set("bbitdiddle", "MIKE"));
+        followsGraph.put("alyssa", set("Bbitdiddle", "alyssa"));
+        followsGraph.put("bbitdiddle", set("mike"));
+        followsGraph.put("zed", set());
+        CsrFollowsGraph graph = new CsrFollowsGraph(followsGraph);
+
+        assertEquals("expected four users", 4, graph.vertexCount());
+        assertEquals("expected three distinct edges", 3, graph.edgeCount());
+        int alyssa = graph.id("ALYSSA");
+        int bbitdiddle = graph.id("bbitdiddle");
+        int mike = graph.id("mike");
+        int zed = graph.id("zed");
+        assertEquals("expected alphabetical ids", Arrays.asList(0, 1, 2, 3), Arrays.asList(alyssa, bbitdiddle, mike, zed));
+        assertEquals("expected lowercase name", "mike", graph.name(mike));
+        assertArrayEquals("expected alyssa's follows", new int[] { bbitdiddle, mike }, graph.follows(alyssa));
+        assertArrayEquals("expected mike's followers", new int[] { alyssa, bbitdiddle }, graph.followers(mike));
+        assertEquals("expected mike follows nobody", 0, graph.followsCount(mike));
+        assertEquals("expected nobody follows zed", 0, graph.followerCount(zed));
+    }
+}
@@ -0,0 +1,86 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    /*
+     * Partition for HyperLogLog:
+     * distinct strings: 0, small (linear counting range), large
+     * duplicates: none, many
+     * merge: disjoint sets, overlapping sets, mismatched precision
+     * withRelativeError: within range, clamped to MAX_PRECISION
+     */
+
+    private static HyperLogLog sketchOf(int precision, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            sketch.add("user" + i);
+        }
+        return sketch;
+    }
+
+    private static void assertWithin(String message, long expected, double relativeError, long actual) {
+        assertTrue(message + ": expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= relativeError * expected);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 distinct strings
+    @Test
+    public void testEmpty() {
+        assertEquals("expected zero", 0, new HyperLogLog(12).estimate());
+    }
+
+    // covers small number of distinct strings, many duplicates
+    @Test
+    public void testSmallWithDuplicates() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int copy = 0; copy < 100; copy++) {
+            for (int i = 0; i < 50; i++) {
+                sketch.add("user" + i);
+            }
+        }
+        assertWithin("expected duplicates ignored", 50, 0.05, sketch.estimate());
+    }
+
+    // covers large number of distinct strings, no duplicates
+    @Test
+    public void testLarge() {
+        HyperLogLog sketch = sketchOf(14, 0, 200_000);
+
+        // standard error at precision 14 is about 0.8%; allow 4 of them
+        assertWithin("expected estimate of distinct count", 200_000, 0.033, sketch.estimate());
+    }
+
+    // covers merge of overlapping sets
+    @Test
+    public void testMerge() {
+        HyperLogLog shard1 = sketchOf(14, 0, 60_000);
+        HyperLogLog shard2 = sketchOf(14, 40_000, 100_000);
+
+        shard1.merge(shard2);
+        assertWithin("expected estimate of the union", 100_000, 0.033, shard1.estimate());
+        assertEquals("expected same as one sketch of the union", sketchOf(14, 0, 100_000).estimate(), shard1.estimate());
+    }
+
+    // covers merge with mismatched precision
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeMismatched() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    // covers withRelativeError within range and clamped
+    @Test
+    public void testWithRelativeError() {
+        assertEquals("expected 2^14 registers for 1%", 14, HyperLogLog.withRelativeError(0.01).getPrecision());
+        assertEquals("expected clamped precision", HyperLogLog.MAX_PRECISION,
+                HyperLogLog.withRelativeError(0.0001).getPrecision());
+    }
+}
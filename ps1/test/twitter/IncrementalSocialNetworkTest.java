@@ -0,0 +1,143 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IncrementalSocialNetworkTest {
+
+    /*
+     * Partition for addAll(), removeAll(), getFollowsGraph() and influencers():
+     * batches: 0, 1, > 1
+     * batch kind: add, remove
+     * evidence: mention, self-mention, shared hashtag, both
+     * hashtag users vs maxUsersPerHashtag: below, at, crossing the limit in
+     *   either direction
+     *
+     * after every batch the graph equals SocialNetwork.guessFollowsGraph over
+     * the tweets added and not removed, and influencers(k) equals
+     * SocialNetwork.influencers
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "@bbitdiddle #hype", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "mike", "@Mike super #hype", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 batches
+    @Test
+    public void testEmpty() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+
+        assertTrue("expected empty graph", network.getFollowsGraph().isEmpty());
+        assertTrue("expected no influencers", network.influencers(10).isEmpty());
+    }
+
+    // covers > 1 batches, mention, self-mention, shared hashtag, both,
+    //        hashtag crossing the limit
+    @Test
+    public void testHashtagCrossingLimit() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork(2);
+
+        network.addAll(Arrays.asList(tweet1, tweet2));
+        assertEquals("expected same as batch", SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1, tweet2), 2),
+                network.getFollowsGraph());
+        assertEquals("expected mutual follows", 1, network.followerCount("Alyssa"));
+
+        network.addAll(Arrays.asList(tweet3));
+        List<Tweet> all = Arrays.asList(tweet1, tweet2, tweet3);
+        assertEquals("expected same as batch", SocialNetwork.guessFollowsGraph(all, 2), network.getFollowsGraph());
+        assertEquals("expected mention to remain", 1, network.followerCount("bbitdiddle"));
+        assertEquals("expected hashtag edge removed", 0, network.followerCount("alyssa"));
+        assertEquals("expected same influencers", SocialNetwork.influencers(network.getFollowsGraph(), 2),
+                network.influencers(2));
+    }
+
+    // covers many batches of random tweets, hashtags below and at the limit
+    @Test
+    public void testRandomBatchesMatchBatchComputation() {
+        Random random = new Random(6005);
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork(8);
+        List<Tweet> history = new ArrayList<>();
+        for (int batch = 0; batch < 20; batch++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                String text = "@user" + random.nextInt(40) + " #tag" + random.nextInt(30);
+                tweets.add(new Tweet(history.size() + i, "user" + random.nextInt(40), text, d1));
+            }
+            network.addAll(tweets);
+            history.addAll(tweets);
+
+            assertEquals("expected same as batch after batch " + batch,
+                    SocialNetwork.guessFollowsGraph(history, 8), network.getFollowsGraph());
+            assertEquals("expected same influencers after batch " + batch,
+                    SocialNetwork.influencers(network.getFollowsGraph(), 5), network.influencers(5));
+        }
+    }
+
+    // covers remove, hashtag crossing back below the limit, author with no
+    //        tweets left who is still followed
+    @Test
+    public void testRemoveCrossingLimit() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork(2);
+        network.addAll(Arrays.asList(tweet1, tweet2, tweet3));
+
+        network.removeAll(Arrays.asList(tweet3));
+        assertEquals("expected same as batch", SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1, tweet2), 2),
+                network.getFollowsGraph());
+        assertEquals("expected hashtag edge restored", 1, network.followerCount("alyssa"));
+
+        network.removeAll(Arrays.asList(tweet2));
+        assertEquals("expected same as batch", SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1), 2),
+                network.getFollowsGraph());
+        assertEquals("expected mention to remain", 1, network.followerCount("bbitdiddle"));
+        assertEquals("expected same influencers", SocialNetwork.influencers(network.getFollowsGraph(), 5),
+                network.influencers(5));
+
+        network.removeAll(Arrays.asList(tweet1));
+        assertTrue("expected empty graph", network.getFollowsGraph().isEmpty());
+        assertTrue("expected no influencers", network.influencers(10).isEmpty());
+    }
+
+    // covers many batches of random tweets added and removed
+    @Test
+    public void testRandomAddAndRemoveMatchBatchComputation() {
+        Random random = new Random(6005);
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork(6);
+        List<Tweet> current = new ArrayList<>();
+        for (int batch = 0; batch < 40; batch++) {
+            if (batch % 3 == 2) {
+                List<Tweet> removed = new ArrayList<>();
+                for (int i = 0; i < 40 && !current.isEmpty(); i++) {
+                    removed.add(current.remove(random.nextInt(current.size())));
+                }
+                network.removeAll(removed);
+            } else {
+                List<Tweet> tweets = new ArrayList<>();
+                for (int i = 0; i < 30; i++) {
+                    String text = "@user" + random.nextInt(20) + " #tag" + random.nextInt(10) + " #tag" + random.nextInt(10);
+                    tweets.add(new Tweet(batch * 100 + i, "user" + random.nextInt(20), text, d1));
+                }
+                network.addAll(tweets);
+                current.addAll(tweets);
+            }
+
+            assertEquals("expected same as batch after batch " + batch,
+                    SocialNetwork.guessFollowsGraph(current, 6), network.getFollowsGraph());
+            assertEquals("expected same influencers after batch " + batch,
+                    SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(current, 6), 50), network.influencers(50));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class MappedTweetReaderTest {
+
+    /*
+     * Partition for readTweetsFromFile():
+     * tweets in file: 0, 1, > 1
+     * threads: 1, > 1, > number of tweets
+     * tweet text: plain, containing braces, brackets and escaped quotes
+     * file: JSON array, not an array
+     *
+     * result in the same order as the file
+     */
+
+    private static String tweetJson(long id, String author, String text) {
+        return "{\"id\": " + id + ", \"user\": {\"screen_name\": \"" + author + "\"},"
+                + " \"text\": \"" + text + "\", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    }
+
+    private static Path writeFile(String json) throws IOException {
+        Path file = Files.createTempFile("tweets", ".json");
+        file.toFile().deleteOnExit();
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Path writeTweets(int count) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            json.append(tweetJson(i, "user" + (i % 7), "tweet {" + i + "} [\\\"quoted\\\"] #tag"));
+        }
+        return writeFile(json.append("\n]\n").toString());
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        List<Long> ids = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testReadEmptyArray() throws IOException {
+        List<Tweet> tweets = MappedTweetReader.readTweetsFromFile(writeFile(" [ ] "), 4);
+
+        assertTrue("expected empty list", tweets.isEmpty());
+    }
+
+    // covers 1 tweet
+    //        threads > number of tweets
+    @Test
+    public void testReadOneTweet() throws IOException {
+        List<Tweet> tweets = MappedTweetReader.readTweetsFromFile(writeTweets(1), 8);
+
+        assertEquals("expected singleton list", 1, tweets.size());
+        assertEquals("expected author", "user0", tweets.get(0).getAuthor());
+        assertEquals("expected text", "tweet {0} [\"quoted\"] #tag", tweets.get(0).getText());
+    }
+
+    // covers > 1 tweets
+    //        threads = 1, threads > 1
+    //        text with braces, brackets and escaped quotes
+    //        result in same order
+    @Test
+    public void testReadManyTweetsInOrder() throws IOException {
+        Path file = writeTweets(1000);
+        List<Long> expected = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            expected.add(i);
+        }
+
+        assertEquals("expected tweets in file order", expected, ids(MappedTweetReader.readTweetsFromFile(file, 1)));
+        assertEquals("expected tweets in file order", expected, ids(MappedTweetReader.readTweetsFromFile(file, 4)));
+    }
+
+    // covers file not an array
+    @Test(expected=JsonException.class)
+    public void testReadNotArray() throws IOException {
+        MappedTweetReader.readTweetsFromFile(writeFile(tweetJson(1, "alyssa", "hi")), 2);
+    }
+}
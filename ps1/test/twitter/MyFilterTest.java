@@ -0,0 +1,140 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MyFilterTest {
+
+    /*
+     * Tests for the helpers added to Filter beyond its spec.
+     *
+     * Partition for containingParallel():
+     * tweets.size(): 0, small, large enough to split
+     * input list: random access, linked
+     * tweet text: plain, punctuation inside and around words, tabs and
+     *             repeated spaces, non-ASCII characters
+     * query words: plain, different case, containing punctuation
+     * result equals the split-and-compare rule, in input order
+     *
+     * Partition for writtenBy() on a TweetTable:
+     * username case: same as author, different; author present, absent
+     *
+     * Partition for the shared word rule, WordMatcher.words():
+     * the same kinds of tweet text; equals the nonempty words of the split
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final String[] WORDS = { "Rivest", "talk", "ri!vest", "  ", "\t", "ta\tlk", "#hype",
+                                            "obama's", "\u00dcn\u00efcode", "stra\u00dfe", "_x_", "mit.edu", "30" };
+
+    /*
+     * Filter.containing() as originally written: split, then compare.
+     */
+    private static List<Tweet> reference(List<Tweet> tweets, List<String> words) {
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            String text = tweet.getText().toLowerCase().replaceAll("[^\\w\\s]", "");
+            List<String> textList = Arrays.asList(text.split(" "));
+            for (String word : words) {
+                if (textList.contains(word.toLowerCase())) {
+                    result.add(tweet);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Tweet> randomTweets(int count) {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int w = 0; w < length; w++) {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+                text.append(random.nextInt(4) == 0 ? "  " : " ");
+            }
+            tweets.add(new Tweet(i, "alyssa", text.toString(), d1));
+        }
+        return tweets;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tweets.size() = 0
+    @Test
+    public void testContainingParallelEmpty() {
+        assertTrue("expected empty list", Filter.containingParallel(new ArrayList<Tweet>(), Arrays.asList("talk")).isEmpty());
+    }
+
+    // covers small, random access, every kind of text and query word
+    @Test
+    public void testContainingMatchesSplitRule() {
+        List<Tweet> tweets = randomTweets(2000);
+        for (String word : WORDS) {
+            List<String> words = Arrays.asList(word, "nothing");
+            assertEquals("expected same tweets for " + word, reference(tweets, words), Filter.containing(tweets, words));
+            assertEquals("expected same tweets for " + word, reference(tweets, words),
+                    Filter.containingParallel(tweets, words));
+        }
+    }
+
+    // covers TweetTable, same and different case, present and absent
+    @Test
+    public void testWrittenByTweetTable() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Alyssa", "a", d1), new Tweet(2, "bbitdiddle", "b", d1),
+                new Tweet(3, "alyssa", "c", d1), new Tweet(4, "ALYSSA", "d", d1));
+        TweetTable table = new TweetTable(tweets);
+
+        for (String username : Arrays.asList("alyssa", "BBitDiddle", "nobody")) {
+            List<Long> expected = new ArrayList<>();
+            for (Tweet tweet : Filter.writtenBy(tweets, username)) {
+                expected.add(tweet.getId());
+            }
+            List<Long> actual = new ArrayList<>();
+            for (Tweet tweet : Filter.writtenBy(table, username)) {
+                actual.add(tweet.getId());
+            }
+            assertEquals("expected same tweets for " + username, expected, actual);
+        }
+    }
+
+    // covers every kind of text, words() equals the split
+    @Test
+    public void testWordsMatchSplitRule() {
+        for (Tweet tweet : randomTweets(2000)) {
+            List<String> expected = new ArrayList<>();
+            for (String word : tweet.getText().toLowerCase().replaceAll("[^\\w\\s]", "").split(" ")) {
+                if (!word.isEmpty()) {
+                    expected.add(word);
+                }
+            }
+            assertEquals("expected same words for " + tweet.getText(), expected, WordMatcher.words(tweet.getText()));
+        }
+    }
+
+    // covers large enough to split, linked list, result in input order
+    @Test
+    public void testContainingParallelLargeInOrder() {
+        List<Tweet> tweets = randomTweets(100_000);
+        List<String> words = Arrays.asList("RIVEST", "obamas", "\u00fcn\u00efcode");
+
+        List<Tweet> expected = reference(tweets, words);
+        assertEquals("expected same tweets in order", expected, Filter.containingParallel(tweets, words));
+        assertEquals("expected same tweets in order", expected, Filter.containingParallel(new LinkedList<>(tweets), words));
+    }
+
+}
@@ -3,10 +3,13 @@ package twitter;
 import static org.junit.Assert.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -17,6 +20,15 @@ public class MySocialNetworkTest {
      * 
      * Partition for guessFollowsGraph():
      * number of usernames sharing "#": 0, > 0
+     * number of usernames sharing "#" vs maxUsersPerHashtag: <=, >
+     * 
+     * Partition for influencers(followsGraph, k):
+     * k: 0, < number of users, >= number of users
+     * users with the same follower count: none, some
+     * 
+     * Partition for guessFollowsGraphParallel():
+     * tweets.size(): 0, <= one partition, many partitions
+     * result equals guessFollowsGraph() with the same hashtag limit
      * 
      */
     
@@ -75,5 +87,82 @@ public class MySocialNetworkTest {
         assertEquals("expected key 'bbitdiddle' contaning values", values3, followsGraphLower.get("bbitdiddle"));
         assertEquals("expected key 'mike' contaning values", values1, followsGraphLower.get("mike"));
     }
+    
+    // covers sharing "#" by more users than maxUsersPerHashtag
+    @Test
+    public void testGuessFollowsGraphPopularHashtagIgnored() {
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1, tweet2, tweet3), 2);
+        
+        for (String key : followsGraph.keySet()) {
+            assertTrue("expected no follows for " + key, followsGraph.get(key).isEmpty());
+        }
+    }
+    
+    // covers sharing "#" by as many users as maxUsersPerHashtag
+    @Test
+    public void testGuessFollowsGraphHashtagAtLimit() {
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1, tweet2, tweet3), 3);
+        
+        assertEquals("expected same as default limit", SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1, tweet2, tweet3)), followsGraph);
+    }
+    
+    // covers k = 0
+    @Test
+    public void testInfluencersTopZero() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle")));
+        
+        assertTrue("expected empty list", SocialNetwork.influencers(followsGraph, 0).isEmpty());
+    }
+    
+    // covers k < number of users
+    //        users with the same follower count
+    @Test
+    public void testInfluencersTopK() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "mike")));
+        followsGraph.put("den", new HashSet<>(Arrays.asList("bbitdiddle", "Mike")));
+        followsGraph.put("bill", new HashSet<>(Arrays.asList("bbitdiddle", "den")));
+        
+        assertEquals("expected top 2", Arrays.asList("bbitdiddle", "mike"), SocialNetwork.influencers(followsGraph, 2));
+        assertEquals("expected ties in alphabetical order", Arrays.asList("bbitdiddle", "mike", "den", "alyssa"),
+                SocialNetwork.influencers(followsGraph, 4));
+    }
+    
+    // covers k >= number of users
+    @Test
+    public void testInfluencersTopKAllUsers() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "mike")));
+        followsGraph.put("mike", new HashSet<>(Arrays.asList("bbitdiddle")));
+        
+        assertEquals("expected all users", SocialNetwork.influencers(followsGraph), SocialNetwork.influencers(followsGraph, 10));
+        assertEquals("expected all users in order", Arrays.asList("bbitdiddle", "mike", "alyssa"), SocialNetwork.influencers(followsGraph, 10));
+    }
+    
+    // covers tweets.size() = 0, <= one partition
+    @Test
+    public void testGuessFollowsGraphParallelSmall() {
+        assertTrue("expected empty graph", SocialNetwork.guessFollowsGraphParallel(new ArrayList<Tweet>(), 10).isEmpty());
+        
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4, tweet5);
+        assertEquals("expected same as sequential", SocialNetwork.guessFollowsGraph(tweets, 10),
+                SocialNetwork.guessFollowsGraphParallel(tweets, 10));
+    }
+    
+    // covers many partitions
+    @Test
+    public void testGuessFollowsGraphParallelMatchesSequential() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            String text = "@User" + random.nextInt(500) + " hi @user" + random.nextInt(500)
+                    + " #tag" + random.nextInt(300) + " #Tag" + random.nextInt(300);
+            tweets.add(new Tweet(i, "user" + random.nextInt(500), text, d1));
+        }
+        
+        assertEquals("expected same as sequential", SocialNetwork.guessFollowsGraph(tweets, 50),
+                SocialNetwork.guessFollowsGraphParallel(tweets, 50));
+    }
 
 }
@@ -0,0 +1,138 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /*
+     * Partition for PageRank:
+     * graph: empty, cycle, star, random (large enough to run in parallel)
+     * users following nobody: none, some
+     * iterations: converged, stopped by the limit
+     * influencers k: 0, < users, > users, far above users; ties
+     */
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    /*
+     * Straightforward sequential PageRank over the Map representation.
+     */
+    private static double[] reference(CsrFollowsGraph graph, double damping, int iterations) {
+        int n = graph.vertexCount();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] next = new double[n];
+            Arrays.fill(next, (1 - damping) / n);
+            for (int u = 0; u < n; u++) {
+                int[] follows = graph.follows(u);
+                if (follows.length == 0) {
+                    for (int v = 0; v < n; v++) {
+                        next[v] += damping * rank[u] / n;
+                    }
+                }
+                for (int v : follows) {
+                    next[v] += damping * rank[u] / follows.length;
+                }
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers empty graph, k > users
+    @Test
+    public void testEmpty() {
+        assertEquals("expected no ranks", 0, PageRank.ranks(new CsrFollowsGraph(Collections.emptyMap())).length);
+        assertTrue("expected no influencers", PageRank.influencers(Collections.emptyMap(), 3).isEmpty());
+    }
+
+    // covers cycle, converged, ties, k > users
+    @Test
+    public void testCycleIsUniform() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("a", set("b"));
+        followsGraph.put("b", set("c"));
+        followsGraph.put("c", set("a"));
+        double[] rank = PageRank.ranks(new CsrFollowsGraph(followsGraph));
+
+        for (double r : rank) {
+            assertEquals("expected equal ranks", 1.0 / 3, r, 1e-9);
+        }
+        assertEquals("expected ties broken alphabetically", Arrays.asList("a", "b", "c"),
+                PageRank.influencers(followsGraph, 5));
+    }
+
+    // covers k far above users
+    @Test
+    public void testHugeK() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("a", set("b"));
+        followsGraph.put("b", set());
+
+        assertEquals("expected every user", Arrays.asList("b", "a"), PageRank.influencers(followsGraph, 500_000_000));
+        assertEquals("expected every user", Arrays.asList("b", "a"), PageRank.influencers(followsGraph, Integer.MAX_VALUE));
+    }
+
+    // covers star, users following nobody, k < users, k = 0
+    @Test
+    public void testStarAndFollowedByInfluential() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            followsGraph.put("fan" + i, set("Star"));
+        }
+        followsGraph.put("star", set("friend"));
+        followsGraph.put("nobody", set("other"));
+
+        assertEquals("expected star, then the user the star follows", Arrays.asList("star", "friend"),
+                PageRank.influencers(followsGraph, 2));
+        assertTrue("expected empty list", PageRank.influencers(followsGraph, 0).isEmpty());
+        assertEquals("expected ranks to sum to 1", 1.0, sum(PageRank.ranks(new CsrFollowsGraph(followsGraph))), 1e-9);
+    }
+
+    // covers random graph run in parallel, stopped by the limit
+    @Test
+    public void testAgreesWithReference() {
+        Random random = new Random(6005);
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        for (int u = 0; u < 20_000; u++) {
+            Set<String> follows = new HashSet<>();
+            int degree = random.nextInt(4) == 0 ? 0 : random.nextInt(6);
+            for (int e = 0; e < degree; e++) {
+                follows.add("user" + (int) Math.pow(20_000, random.nextDouble()));
+            }
+            followsGraph.put("user" + u, follows);
+        }
+        CsrFollowsGraph graph = new CsrFollowsGraph(followsGraph);
+
+        double[] expected = reference(graph, PageRank.DEFAULT_DAMPING, 5);
+        double[] actual = PageRank.ranks(graph, PageRank.DEFAULT_DAMPING, 0, 5);
+        assertArrayEquals("expected same ranks as the sequential reference", expected, actual, 1e-12);
+        assertEquals("expected ranks to sum to 1", 1.0, sum(PageRank.ranks(graph)), 1e-9);
+    }
+}
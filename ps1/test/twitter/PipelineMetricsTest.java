@@ -0,0 +1,86 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelineMetricsTest {
+
+    /*
+     * Partition for PipelineMetrics:
+     * enabled, disabled
+     * stages: extract, filter, follows graph, influencers
+     * read through snapshot(), through JMX
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much? @bbitdiddle", d1),
+            new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1));
+
+    @Before
+    public void setUp() {
+        PipelineMetrics.setEnabled(true);
+        PipelineMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        PipelineMetrics.setEnabled(true);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers enabled, every stage, snapshot()
+    @Test
+    public void testStagesRecorded() {
+        Extract.getMentionedUsers(TWEETS);
+        Filter.writtenBy(TWEETS, "alyssa");
+        Filter.containing(TWEETS, Arrays.asList("rivest"));
+        SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(TWEETS));
+
+        assertEquals("expected one extract call", 1, PipelineMetrics.EXTRACT.snapshot().getCalls());
+        assertEquals("expected extract result size", 1, PipelineMetrics.EXTRACT.snapshot().getResultSize());
+        assertEquals("expected two filter calls", 2, PipelineMetrics.FILTER.snapshot().getCalls());
+        assertEquals("expected filter items", 4, PipelineMetrics.FILTER.snapshot().getItems());
+        assertEquals("expected filter result sizes", 3, PipelineMetrics.FILTER.snapshot().getResultSize());
+        assertEquals("expected one follows graph call", 1, PipelineMetrics.FOLLOWS_GRAPH.snapshot().getCalls());
+        assertEquals("expected influencers items are users", 2, PipelineMetrics.INFLUENCERS.snapshot().getItems());
+        assertEquals("expected a snapshot of every stage", PipelineMetrics.stages().size(),
+                PipelineMetrics.snapshot().size());
+    }
+
+    // covers disabled
+    @Test
+    public void testDisabled() {
+        PipelineMetrics.setEnabled(false);
+        Filter.writtenBy(TWEETS, "alyssa");
+
+        assertEquals("expected no filter calls", 0, PipelineMetrics.FILTER.getCalls());
+    }
+
+    // covers JMX
+    @Test
+    public void testReadThroughJmx() throws JMException {
+        PipelineMetrics.registerMBeans();
+        PipelineMetrics.registerMBeans();
+        Filter.writtenBy(TWEETS, "alyssa");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        assertEquals("expected one filter call", 1L,
+                server.getAttribute(PipelineMetrics.objectName(PipelineMetrics.FILTER), "Calls"));
+    }
+}
@@ -0,0 +1,91 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ShardedSocialNetworkTest {
+
+    /*
+     * Partition for ShardedSocialNetwork, with worker processes on this machine:
+     * tweets: 0, > 1
+     * authors: one shard, spread over every shard, same author in mixed case
+     * hashtags: shared across shards, over the popularity limit
+     * workers: reachable, unreachable
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static ShardedSocialNetwork network;
+
+    @BeforeClass
+    public static void startWorkers() throws IOException {
+        network = ShardedSocialNetwork.startLocal(3);
+    }
+
+    @AfterClass
+    public static void stopWorkers() {
+        network.close();
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testEmpty() throws IOException {
+        assertEquals("expected three workers", 3, network.workerCount());
+        assertTrue("expected empty graph", network.guessFollowsGraph(Collections.emptyList(), 10).isEmpty());
+    }
+
+    // covers same author in mixed case
+    @Test
+    public void testShardIgnoresCase() {
+        assertEquals("expected same shard", ShardedSocialNetwork.shardOf("Alyssa", 3),
+                ShardedSocialNetwork.shardOf("alyssa", 3));
+    }
+
+    // covers > 1 tweets, authors on every shard, hashtags shared across shards
+    //        and over the limit
+    @Test
+    public void testMatchesSingleProcess() throws IOException {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String author = (random.nextBoolean() ? "User" : "user") + random.nextInt(60);
+            String text = "@user" + random.nextInt(60) + " #tag" + random.nextInt(40) + " #common";
+            tweets.add(new Tweet(i, author, text, d1));
+        }
+
+        assertEquals("expected same graph as SocialNetwork", SocialNetwork.guessFollowsGraph(tweets, 20),
+                network.guessFollowsGraph(tweets, 20));
+        assertEquals("expected same influencers as SocialNetwork",
+                SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets), 10), network.influencers(tweets, 10));
+    }
+
+    // covers unreachable worker
+    @Test(expected=IOException.class)
+    public void testUnreachableWorker() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ShardedSocialNetwork unreachable = new ShardedSocialNetwork(
+                Arrays.asList(new InetSocketAddress("localhost", port)));
+        unreachable.guessFollowsGraph(Arrays.asList(new Tweet(1, "alyssa", "@bbitdiddle", d1)), 10);
+    }
+}
@@ -0,0 +1,93 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StageMetricsTest {
+
+    /*
+     * Partition for StageMetrics:
+     * calls: 0, 1, > 1
+     * sample: from start(), null (metrics disabled)
+     * latency percentile: 0, 50, 100
+     * reset after calls
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 calls
+    @Test
+    public void testEmpty() {
+        StageMetrics.Snapshot snapshot = new StageMetrics("empty").snapshot();
+
+        assertEquals("expected name", "empty", snapshot.getName());
+        assertEquals("expected no calls", 0, snapshot.getCalls());
+        assertEquals("expected no throughput", 0, snapshot.getItemsPerSecond(), 0);
+        assertEquals("expected no latency", 0, snapshot.getLatencyPercentileNanos(50));
+    }
+
+    // covers 1 call, > 1 calls, sample from start()
+    @Test
+    public void testRecordsCalls() {
+        StageMetrics metrics = new StageMetrics("stage");
+        for (int i = 0; i < 3; i++) {
+            StageMetrics.Sample sample = metrics.start();
+            long[] allocated = new long[1000];
+            metrics.stop(sample, 100, allocated.length / 100);
+        }
+        StageMetrics.Snapshot snapshot = metrics.snapshot();
+        long histogramCalls = 0;
+        for (long count : snapshot.getLatencyHistogram()) {
+            histogramCalls += count;
+        }
+
+        assertEquals("expected three calls", 3, snapshot.getCalls());
+        assertEquals("expected items of every call", 300, snapshot.getItems());
+        assertEquals("expected result sizes of every call", 30, snapshot.getResultSize());
+        assertEquals("expected every call in the histogram", 3, histogramCalls);
+        assertTrue("expected positive throughput", snapshot.getItemsPerSecond() > 0);
+        assertTrue("expected max at least the mean", snapshot.getMaxLatencyNanos() >= snapshot.getMeanLatencyNanos());
+        assertEquals("expected live value as in snapshot", 3, metrics.getCalls());
+    }
+
+    // covers null sample
+    @Test
+    public void testNullSampleIgnored() {
+        StageMetrics metrics = new StageMetrics("stage");
+        metrics.stop(null, 10, 10);
+
+        assertEquals("expected no calls", 0, metrics.getCalls());
+    }
+
+    // covers percentiles 0, 50, 100
+    @Test
+    public void testPercentilesBoundedByMax() {
+        StageMetrics metrics = new StageMetrics("stage");
+        for (int i = 0; i < 10; i++) {
+            metrics.stop(metrics.start(), 1, 1);
+        }
+        StageMetrics.Snapshot snapshot = metrics.snapshot();
+        long p0 = snapshot.getLatencyPercentileNanos(0);
+        long p50 = snapshot.getLatencyPercentileNanos(50);
+        long p100 = snapshot.getLatencyPercentileNanos(100);
+
+        assertTrue("expected nondecreasing percentiles", p0 <= p50 && p50 <= p100);
+        assertEquals("expected p100 to be the max", snapshot.getMaxLatencyNanos(), p100);
+    }
+
+    // covers reset after calls
+    @Test
+    public void testReset() {
+        StageMetrics metrics = new StageMetrics("stage");
+        metrics.stop(metrics.start(), 5, 5);
+        metrics.reset();
+
+        assertEquals("expected no calls", 0, metrics.getCalls());
+        assertEquals("expected no items", 0, metrics.getItems());
+        assertEquals("expected no latency", 0, metrics.getMaxLatencyNanos());
+    }
+}
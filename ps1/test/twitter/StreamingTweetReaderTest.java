@@ -0,0 +1,102 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class StreamingTweetReaderTest {
+
+    /*
+     * Partition for StreamingTweetReader:
+     * tweets in array: 0, 1, > 1
+     * screen name: nested "user" object, flattened "user.screen_name" key
+     * id: JSON number, JSON string
+     * extra fields: none, scalars, nested objects and arrays
+     * input: well-formed, not an array, tweet missing a field
+     *
+     */
+
+    private static final String TWEET1 = "{\"id\": 1, \"user\": {\"screen_name\": \"alyssa\", \"followers\": [1, 2]},"
+            + " \"text\": \"is it reasonable to talk about rivest so much?\","
+            + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    private static final String TWEET2 = "{\"retweeted\": false, \"id\": \"2\", \"entities\": {\"hashtags\": [{\"text\": \"hype\"}]},"
+            + " \"user.screen_name\": \"bbitdiddle\", \"text\": \"rivest talk in 30 minutes #hype\","
+            + " \"created_at\": \"Wed Feb 17 06:00:00 -0500 2016\"}";
+
+    private static List<Tweet> read(String json) {
+        List<Tweet> tweets = new ArrayList<>();
+        StreamingTweetReader.readTweets(new StringReader(json), tweets::add);
+        return tweets;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testReadEmptyArray() {
+        assertTrue("expected empty list", read("[]").isEmpty());
+    }
+
+    // covers 1 tweet
+    //        nested "user" object, numeric id
+    //        extra nested arrays
+    @Test
+    public void testReadOneTweet() {
+        List<Tweet> tweets = read("[" + TWEET1 + "]");
+
+        assertEquals("expected singleton list", 1, tweets.size());
+        Tweet tweet = tweets.get(0);
+        assertEquals("expected id", 1, tweet.getId());
+        assertEquals("expected author", "alyssa", tweet.getAuthor());
+        assertEquals("expected text", "is it reasonable to talk about rivest so much?", tweet.getText());
+        assertEquals("expected timestamp", Instant.parse("2016-02-17T10:00:00Z"), tweet.getTimestamp());
+    }
+
+    // covers > 1 tweets
+    //        flattened "user.screen_name", string id
+    //        extra scalars and nested objects
+    @Test
+    public void testReadMultipleTweetsInOrder() {
+        List<Tweet> tweets = read("[" + TWEET1 + ", " + TWEET2 + "]");
+
+        assertEquals("expected two tweets", 2, tweets.size());
+        assertEquals("expected same order", 1, tweets.get(0).getId());
+        assertEquals("expected id", 2, tweets.get(1).getId());
+        assertEquals("expected author", "bbitdiddle", tweets.get(1).getAuthor());
+        assertEquals("expected timestamp", Instant.parse("2016-02-17T11:00:00Z"), tweets.get(1).getTimestamp());
+    }
+
+    // covers reading lazily through the iterator
+    @Test
+    public void testIteratorIsLazy() {
+        StreamingTweetReader reader = new StreamingTweetReader(new StringReader("[" + TWEET1 + ", " + TWEET2 + "]"));
+
+        assertTrue("expected a tweet", reader.hasNext());
+        assertEquals("expected first tweet", 1, reader.next().getId());
+        assertEquals("expected second tweet", 2, reader.next().getId());
+        assertFalse("expected end of input", reader.hasNext());
+        reader.close();
+    }
+
+    // covers input not an array
+    @Test(expected=JsonException.class)
+    public void testReadNotArray() {
+        read(TWEET1);
+    }
+
+    // covers tweet missing a field
+    @Test(expected=JsonException.class)
+    public void testReadMissingField() {
+        read("[{\"id\": 3, \"text\": \"no author\", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}]");
+    }
+}
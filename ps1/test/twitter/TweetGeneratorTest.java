@@ -0,0 +1,134 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TweetGeneratorTest {
+
+    /*
+     * Partition for TweetGenerator:
+     * seed: same as another generator, different
+     * users: 1, > 1
+     * hashtags: default vocabulary, given vocabulary, invalid hashtag
+     * mean interval: 0, > 0
+     * writeJson: 0 tweets, > 0 tweets
+     *
+     * every tweet is valid, ids increase, timestamps never decrease
+     */
+
+    private static final Instant START = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static void assertValid(List<Tweet> tweets) {
+        for (int i = 0; i < tweets.size(); i++) {
+            Tweet tweet = tweets.get(i);
+            assertTrue("expected valid author", tweet.getAuthor().matches("[A-Za-z0-9_-]+"));
+            assertTrue("expected at most 140 characters", tweet.getText().length() <= 140);
+            if (i > 0) {
+                assertEquals("expected consecutive ids", tweets.get(i - 1).getId() + 1, tweet.getId());
+                assertFalse("expected nondecreasing timestamps",
+                        tweet.getTimestamp().isBefore(tweets.get(i - 1).getTimestamp()));
+            }
+        }
+    }
+
+    private static List<String> fields(List<Tweet> tweets) {
+        List<String> fields = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            fields.add(tweet.toString());
+        }
+        return fields;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers same seed, different seed, > 1 users, default vocabulary,
+    //        mean interval > 0
+    @Test
+    public void testDeterministic() {
+        List<Tweet> first = new TweetGenerator(6005, 100, 10).next(500);
+        List<Tweet> second = new TweetGenerator(6005, 100, 10).next(500);
+        List<Tweet> other = new TweetGenerator(6031, 100, 10).next(500);
+
+        assertValid(first);
+        assertEquals("expected same tweets from the same seed", fields(first), fields(second));
+        assertNotEquals("expected different tweets from another seed", fields(first), fields(other));
+    }
+
+    // covers > 1 users; skewed authors and mentions
+    @Test
+    public void testSkewed() {
+        List<Tweet> tweets = new TweetGenerator(6005, 1000, 50).next(20_000);
+        Map<String, Integer> authored = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            authored.merge(tweet.getAuthor(), 1, Integer::sum);
+        }
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets, 0);
+
+        assertValid(tweets);
+        assertTrue("expected the first user to write far more than the 100th",
+                authored.get("user0") > 10 * authored.getOrDefault("user99", 0));
+        for (Set<String> follows : followsGraph.values()) {
+            assertTrue("expected each user to mention at most 8 others", follows.size() <= 8);
+        }
+        assertEquals("expected the most mentioned user to be the first", "user0",
+                SocialNetwork.influencers(followsGraph).get(0));
+    }
+
+    // covers 1 user, given vocabulary, mean interval 0
+    @Test
+    public void testGivenVocabularyAndTiming() {
+        List<String> hashtags = Arrays.asList("mit", "6005");
+        List<Tweet> tweets = new TweetGenerator(1, 1, hashtags, 0, 0, START, Duration.ZERO).next(200);
+        Set<String> used = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            TweetTokenizer.forEachHashtag(tweet.getText(), used::add);
+        }
+
+        assertValid(tweets);
+        for (Tweet tweet : tweets) {
+            assertEquals("expected the only user", "user0", tweet.getAuthor());
+            assertEquals("expected every tweet at the start", START, tweet.getTimestamp());
+        }
+        assertEquals("expected only the given hashtags", new HashSet<>(hashtags), used);
+    }
+
+    // covers invalid hashtag
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidHashtag() {
+        new TweetGenerator(1, 10, Arrays.asList("no spaces"), 1, 1, START, Duration.ZERO);
+    }
+
+    // covers writeJson 0 tweets, > 0 tweets
+    @Test
+    public void testWriteJsonRoundTrip() throws IOException {
+        Path file = Files.createTempFile("tweets", ".json");
+        file.toFile().deleteOnExit();
+        new TweetGenerator(6005, 50, 5).writeJson(300, file);
+        List<Tweet> expected = new TweetGenerator(6005, 50, 5).next(300);
+
+        assertEquals("expected the generated tweets back", fields(expected),
+                fields(MappedTweetReader.readTweetsFromFile(file, 4)));
+        assertEquals("expected the generated tweets back from TweetReader", fields(expected),
+                fields(TweetReader.readTweetsFromWeb(file.toUri().toURL())));
+
+        new TweetGenerator(6005, 50, 5).writeJson(0, file);
+        assertTrue("expected empty array", MappedTweetReader.readTweetsFromFile(file, 1).isEmpty());
+    }
+}
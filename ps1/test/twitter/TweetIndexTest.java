@@ -0,0 +1,96 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /*
+     * Partition for writtenBy():
+     * tweets indexed: 0, > 0
+     * matching tweets: 0, 1, > 1
+     * username case: same as author, different
+     *
+     * Partition for containing():
+     * words.size(): 0, 1, > 1
+     * matching tweets: 0, 1, > 1
+     * words matching the same tweet: 1, > 1
+     * text: plain, punctuation, repeated words
+     *
+     * results agree with Filter and are in the same order as the input list
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "bbitdiddle", "@alyssa sup? talk talk", d2);
+    private static final Tweet tweet4 = new Tweet(4, "Alyssa", "@bbitdiddle not much, super tired", d1);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no tweets indexed
+    @Test
+    public void testEmptyIndex() {
+        TweetIndex index = new TweetIndex(Collections.<Tweet>emptyList());
+
+        assertTrue("expected empty list", index.writtenBy("alyssa").isEmpty());
+        assertTrue("expected empty list", index.containing(Arrays.asList("talk")).isEmpty());
+    }
+
+    // covers > 1 matching tweets, username in different case
+    @Test
+    public void testWrittenByDifferentCase() {
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet4), index.writtenBy("ALYSSA"));
+        assertEquals("expected same as Filter", Filter.writtenBy(tweets, "bbitdiddle"), index.writtenBy("bbitdiddle"));
+        assertTrue("expected empty list", index.writtenBy("mike").isEmpty());
+    }
+
+    // covers words.size() = 0
+    @Test
+    public void testContainingNoWords() {
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertTrue("expected empty list", index.containing(new ArrayList<String>()).isEmpty());
+    }
+
+    // covers words.size() = 1, > 1 matching tweets, repeated words
+    @Test
+    public void testContainingOneWord() {
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet2, tweet3), index.containing(Arrays.asList("Talk")));
+    }
+
+    // covers words.size() > 1, several words matching the same tweet,
+    //        punctuation
+    @Test
+    public void testContainingManyWordsAgreesWithFilter() {
+        TweetIndex index = new TweetIndex(tweets);
+        List<List<String>> queries = Arrays.asList(
+                Arrays.asList("rivest", "much"),
+                Arrays.asList("sup", "hype", "alyssa"),
+                Arrays.asList("much,", "much?", "30"),
+                Arrays.asList("nothing"));
+
+        for (List<String> words : queries) {
+            assertEquals("expected same as Filter for " + words,
+                    Filter.containing(tweets, words), index.containing(words));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetQueryTest {
+
+    /*
+     * Partition for TweetQuery:
+     * predicates: 0, 1, > 1, same kind twice
+     * tweets: 0, 1, > 1; in an ArrayList, a LinkedList, a TweetIndex
+     * result: empty, some tweets, all tweets
+     * selectivity: author more selective than words, words more selective
+     *              than author
+     *
+     * evaluate() returns the same list as chaining the Filter methods
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "Talk is cheap", d3);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 predicates, 0 and > 1 tweets, all tweets
+    @Test
+    public void testAll() {
+        assertEquals("expected every tweet", tweets, TweetQuery.all().evaluate(tweets));
+        assertTrue("expected no tweets", TweetQuery.all().evaluate(Collections.emptyList()).isEmpty());
+    }
+
+    // covers > 1 predicates, some tweets, ArrayList and TweetIndex
+    @Test
+    public void testAllThreePredicates() {
+        TweetQuery query = TweetQuery.all()
+                .containing(Arrays.asList("talk"))
+                .writtenBy("ALYSSA")
+                .inTimespan(new Timespan(d2, d3));
+
+        assertEquals("expected one tweet", Arrays.asList(tweet3), query.evaluate(tweets));
+        assertEquals("expected one tweet from index", Arrays.asList(tweet3), query.evaluate(new TweetIndex(tweets)));
+    }
+
+    // covers same kind twice, empty result, LinkedList
+    @Test
+    public void testContradiction() {
+        TweetQuery query = TweetQuery.all().writtenBy("alyssa").writtenBy("bbitdiddle");
+
+        assertTrue("expected no tweets", query.evaluate(new LinkedList<>(tweets)).isEmpty());
+        assertTrue("expected no tweets from index", query.evaluate(new TweetIndex(tweets)).isEmpty());
+    }
+
+    // covers author more selective than words, and the reverse
+    @Test
+    public void testPlanPutsSelectivePredicateFirst() {
+        List<Tweet> manyAuthors = new ArrayList<>();
+        List<Tweet> oneAuthor = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String text = i % 200 == 0 ? "rare word" : "common word";
+            manyAuthors.add(new Tweet(i, "user" + (i % 100), text, d1));
+            oneAuthor.add(new Tweet(i, "alyssa", text, d1));
+        }
+        TweetQuery common = TweetQuery.all().containing(Arrays.asList("common")).writtenBy("user7");
+        TweetQuery rare = TweetQuery.all().writtenBy("alyssa").containing(Arrays.asList("rare"));
+
+        assertEquals("expected the selective author tested first",
+                Arrays.asList("writtenBy(user7)", "containing([common])"), common.plan(manyAuthors));
+        assertEquals("expected the rare word tested before an author of every tweet",
+                Arrays.asList("containing([rare])", "writtenBy(alyssa)"), rare.plan(oneAuthor));
+        assertEquals("expected same result as Filter",
+                Filter.writtenBy(Filter.containing(oneAuthor, Arrays.asList("rare")), "alyssa"), rare.evaluate(oneAuthor));
+    }
+
+    // covers random queries against chained Filter calls
+    @Test
+    public void testAgreesWithFilter() {
+        Random random = new Random(6005);
+        String[] words = { "rivest", "talk", "hype", "mit", "Obama", "#hype", "x" };
+        List<Tweet> many = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 5; w++) {
+                text.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : "! ");
+            }
+            many.add(new Tweet(i, "user" + random.nextInt(10), text.toString(), d1.plusSeconds(random.nextInt(1000))));
+        }
+        TweetIndex index = new TweetIndex(many);
+        for (int trial = 0; trial < 100; trial++) {
+            String author = "USER" + random.nextInt(12);
+            Timespan timespan = new Timespan(d1.plusSeconds(random.nextInt(500)), d1.plusSeconds(500 + random.nextInt(500)));
+            List<String> query = Arrays.asList(words[random.nextInt(words.length)], words[random.nextInt(words.length)]);
+
+            List<Tweet> expected = Filter.containing(Filter.inTimespan(Filter.writtenBy(many, author), timespan), query);
+            TweetQuery tweetQuery = TweetQuery.all().inTimespan(timespan).containing(query).writtenBy(author);
+            assertEquals("expected same as Filter for trial " + trial, expected, tweetQuery.evaluate(many));
+            assertEquals("expected same as Filter from index for trial " + trial, expected, tweetQuery.evaluate(index));
+        }
+    }
+}
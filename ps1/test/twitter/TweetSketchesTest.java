@@ -0,0 +1,84 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetSketchesTest {
+
+    /*
+     * Partition for TweetSketches:
+     * tweets: 0, > 1
+     * mentions and hashtags: none, repeated in one tweet, mixed case
+     * shards: 1, > 1 merged
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static List<Tweet> randomTweets(Random random, int count) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String text = "@User" + random.nextInt(5000) + " hi @user" + random.nextInt(5000) + " #tag" + random.nextInt(50);
+            tweets.add(new Tweet(i, "author" + random.nextInt(100), text, d1));
+        }
+        return tweets;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testEmpty() {
+        TweetSketches sketches = new TweetSketches(0.01, 0.001, 0.01);
+
+        assertEquals("expected no mentioned users", 0, sketches.estimateMentionedUserCount());
+        assertEquals("expected no mentions", 0, sketches.estimateMentions("alyssa"));
+        assertEquals("expected no hashtag uses", 0, sketches.estimateHashtagUses("hype"));
+    }
+
+    // covers repeated in one tweet, mixed case
+    @Test
+    public void testCountsOncePerTweet() {
+        TweetSketches sketches = new TweetSketches(0.01, 0.001, 0.01);
+        sketches.add(new Tweet(1, "alyssa", "@Bbitdiddle @bbitdiddle #HYPE #hype", d1));
+        sketches.add(new Tweet(2, "alyssa", "no mentions here", d1));
+
+        assertEquals("expected one mentioned user", 1, sketches.estimateMentionedUserCount());
+        assertEquals("expected one mentioning tweet", 1, sketches.estimateMentions("BBITDIDDLE"));
+        assertEquals("expected one hashtag use", 1, sketches.estimateHashtagUses("Hype"));
+    }
+
+    // covers > 1 tweets, > 1 shards merged
+    @Test
+    public void testShardsMergeToMatchExtract() {
+        Random random = new Random(6005);
+        List<Tweet> shard1 = randomTweets(random, 20_000);
+        List<Tweet> shard2 = randomTweets(random, 20_000);
+        List<Tweet> all = new ArrayList<>(shard1);
+        all.addAll(shard2);
+
+        TweetSketches sketches1 = new TweetSketches(0.01, 0.001, 0.01);
+        TweetSketches sketches2 = new TweetSketches(0.01, 0.001, 0.01);
+        sketches1.addAll(shard1);
+        sketches2.addAll(shard2);
+        sketches1.merge(sketches2);
+
+        int exact = Extract.getMentionedUsers(all).size();
+        long estimate = sketches1.estimateMentionedUserCount();
+        assertTrue("expected about " + exact + " mentioned users but was " + estimate,
+                Math.abs(estimate - exact) <= 0.04 * exact);
+
+        long exactHashtagUses = all.stream().filter(tweet -> tweet.getText().endsWith("#tag7")).count();
+        long hashtagEstimate = sketches1.estimateHashtagUses("tag7");
+        assertTrue("expected no undercount", hashtagEstimate >= exactHashtagUses);
+        assertTrue("expected within the error bound", hashtagEstimate - exactHashtagUses <= 0.001 * all.size() * 2);
+    }
+}
@@ -0,0 +1,128 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetSnapshotTest {
+
+    /*
+     * Partition for write() and read():
+     * tweets: 0, 1, > 1
+     * authors: distinct, repeated
+     * ids and timestamps: increasing, decreasing, negative
+     * timestamp: whole seconds, fraction of a second
+     * text: empty, ASCII, non-ASCII, longer than the read buffer
+     * destination: stream, file
+     * input: valid snapshot, wrong magic, truncated
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.123456789Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes \u00e9\u4e2d #hype", d2);
+    private static final Tweet tweet3 = new Tweet(-7, "alyssa", "", Instant.parse("1960-01-01T00:00:00Z"));
+
+    private static byte[] write(List<Tweet> tweets) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TweetSnapshot.write(tweets, out);
+        return out.toByteArray();
+    }
+
+    private static TweetTable read(byte[] bytes) throws IOException {
+        return TweetSnapshot.read(new ByteArrayInputStream(bytes));
+    }
+
+    private static void assertSameTweets(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals("expected same number of tweets", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("expected id", expected.get(i).getId(), actual.get(i).getId());
+            assertEquals("expected author", expected.get(i).getAuthor(), actual.get(i).getAuthor());
+            assertEquals("expected text", expected.get(i).getText(), actual.get(i).getText());
+            assertEquals("expected timestamp", expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets, stream
+    @Test
+    public void testEmpty() throws IOException {
+        TweetTable table = read(write(Collections.emptyList()));
+
+        assertEquals("expected empty table", 0, table.size());
+    }
+
+    // covers > 1 tweets, repeated authors, decreasing and negative ids and
+    //        timestamps, fraction of a second, empty and non-ASCII text
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet1);
+        TweetTable table = read(write(tweets));
+
+        assertSameTweets(tweets, table);
+        assertEquals("expected authors stored once", 2, table.authorCount());
+    }
+
+    // covers 1 tweet, file
+    @Test
+    public void testFile() throws IOException {
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        try {
+            TweetSnapshot.write(Arrays.asList(tweet2), file);
+            assertSameTweets(Arrays.asList(tweet2), TweetSnapshot.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // covers many tweets, text longer than the read buffer
+    @Test
+    public void testManyTweets() throws IOException {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        char[] longText = new char[100_000];
+        Arrays.fill(longText, 'x');
+        for (int i = 0; i < 5000; i++) {
+            String text = i == 2500 ? new String(longText) : "tweet number " + i;
+            Instant timestamp = d1.plusSeconds(random.nextInt(100_000)).plusNanos(random.nextInt(2) * random.nextInt(1_000_000_000));
+            tweets.add(new Tweet(1000 + i, "user" + random.nextInt(50), text, timestamp));
+        }
+        byte[] bytes = write(tweets);
+
+        assertSameTweets(tweets, read(bytes));
+        assertTrue("expected smaller than the texts plus fixed-width fields",
+                bytes.length < longText.length + 5000 * (20 + 8 + 4 + 8 + 4));
+    }
+
+    // covers wrong magic
+    @Test(expected=IOException.class)
+    public void testNotASnapshot() throws IOException {
+        read("[{\"id\": 1}]".getBytes("UTF-8"));
+    }
+
+    // covers truncated
+    @Test(expected=EOFException.class)
+    public void testTruncated() throws IOException {
+        byte[] bytes = write(Arrays.asList(tweet1, tweet2));
+
+        read(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+}
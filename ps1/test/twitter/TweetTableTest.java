@@ -0,0 +1,100 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetTableTest {
+
+    /*
+     * Partition for TweetTable:
+     * tweets: 0, 1, > 1
+     * authors: distinct, repeated
+     * text: empty, ASCII, non-ASCII
+     * timestamp: whole seconds, fraction of a second
+     * text arena: one chunk, several chunks
+     *
+     * get() returns tweets equal in every field to the ones added, and the
+     * table works as a List<Tweet> for Extract and Filter
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.123456789Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes \u00e9\u4e2d #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "", d1);
+
+    private static void assertSameTweet(Tweet expected, Tweet actual) {
+        assertEquals("expected id", expected.getId(), actual.getId());
+        assertEquals("expected author", expected.getAuthor(), actual.getAuthor());
+        assertEquals("expected text", expected.getText(), actual.getText());
+        assertEquals("expected timestamp", expected.getTimestamp(), actual.getTimestamp());
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testEmpty() {
+        TweetTable table = new TweetTable();
+
+        assertEquals("expected empty table", 0, table.size());
+        assertEquals("expected no authors", 0, table.authorCount());
+    }
+
+    // covers > 1 tweets, repeated authors, empty and non-ASCII text,
+    //        fraction of a second
+    @Test
+    public void testRoundTrip() {
+        TweetTable table = new TweetTable(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected three tweets", 3, table.size());
+        assertSameTweet(tweet1, table.get(0));
+        assertSameTweet(tweet2, table.get(1));
+        assertSameTweet(tweet3, table.get(2));
+        assertEquals("expected two distinct authors", 2, table.authorCount());
+        assertEquals("expected same author id", table.getAuthorId(0), table.getAuthorId(2));
+        assertEquals("expected epoch second", d2.getEpochSecond(), table.getEpochSecond(1));
+    }
+
+    // covers use as a List<Tweet>
+    @Test
+    public void testWorksAsList() {
+        TweetTable table = new TweetTable(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected equal lists", Arrays.asList(tweet1, tweet2, tweet3), table);
+        assertEquals("expected same as Filter on a list", Arrays.asList(tweet1, tweet3), Filter.writtenBy(table, "Alyssa"));
+        assertEquals("expected same timespan", new Timespan(d1, d2), Extract.getTimespan(table));
+    }
+
+    // covers several chunks in the text arena
+    @Test
+    public void testManyTweets() {
+        TweetTable table = new TweetTable();
+        List<Tweet> tweets = new ArrayList<>();
+        char[] filler = new char[140];
+        Arrays.fill(filler, '\u00e9');
+        String longText = new String(filler);
+        for (int i = 0; i < 70000; i++) {
+            Tweet tweet = new Tweet(i, "user" + (i % 100), i + longText, d1.plusSeconds(i));
+            tweets.add(tweet);
+            table.add(tweet);
+        }
+
+        assertEquals("expected every tweet", tweets.size(), table.size());
+        for (int i = 0; i < tweets.size(); i += 997) {
+            assertSameTweet(tweets.get(i), table.get(i));
+        }
+        assertSameTweet(tweets.get(tweets.size() - 1), table.get(table.size() - 1));
+        assertEquals("expected distinct authors", 100, table.authorCount());
+    }
+}
@@ -0,0 +1,94 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetTimelineTest {
+
+    /*
+     * Partition for getTimespan():
+     * tweets: 0, 1, > 1
+     * input list: sorted, unsorted
+     *
+     * Partition for inTimespan():
+     * tweets in timespan: 0, 1, > 1
+     * length of timespan: 0, > 0
+     * timespan endpoints: before, inside, after the tweets;
+     *                     within the same millisecond as a tweet
+     *
+     * check that the input list is not modified
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-18T12:00:00Z");
+    private static final Instant d3nanos = d3.plusNanos(500);
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "bbitdiddle", "@alyssa sup?", d3);
+    private static final Tweet tweet4 = new Tweet(4, "alyssa", "@bbitdiddle not much", d3nanos);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testEmpty() {
+        TweetTimeline timeline = new TweetTimeline(Collections.<Tweet>emptyList());
+        Timespan timespan = timeline.getTimespan();
+
+        assertEquals("expected start equals end", timespan.getStart(), timespan.getEnd());
+        assertTrue("expected empty list", timeline.inTimespan(new Timespan(d1, d3)).isEmpty());
+    }
+
+    // covers > 1 tweets, unsorted input
+    @Test
+    public void testGetTimespanUnsorted() {
+        List<Tweet> tweets = Arrays.asList(tweet3, tweet1, tweet2);
+        TweetTimeline timeline = new TweetTimeline(tweets);
+
+        assertEquals("expected timespan", new Timespan(d1, d3), timeline.getTimespan());
+        assertEquals("expected same as Extract", Extract.getTimespan(tweets), timeline.getTimespan());
+        assertEquals("expected unmodified list", Arrays.asList(tweet3, tweet1, tweet2), tweets);
+    }
+
+    // covers > 1 tweets in timespan, endpoints inside and outside the tweets
+    @Test
+    public void testInTimespanMultipleResults() {
+        TweetTimeline timeline = new TweetTimeline(Arrays.asList(tweet4, tweet3, tweet2, tweet1));
+
+        assertEquals("expected tweets in time order", Arrays.asList(tweet1, tweet2),
+                timeline.inTimespan(new Timespan(Instant.parse("2016-02-17T09:00:00Z"), d2)));
+        assertEquals("expected all tweets", Arrays.asList(tweet1, tweet2, tweet3, tweet4),
+                timeline.inTimespan(new Timespan(Instant.EPOCH, Instant.parse("2100-01-01T00:00:00Z"))));
+    }
+
+    // covers 0 tweets in timespan
+    @Test
+    public void testInTimespanNoResults() {
+        TweetTimeline timeline = new TweetTimeline(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertTrue("expected empty list", timeline.inTimespan(new Timespan(d1.plusSeconds(1), d2.minusSeconds(1))).isEmpty());
+        assertTrue("expected empty list", timeline.inTimespan(new Timespan(Instant.EPOCH, Instant.EPOCH)).isEmpty());
+    }
+
+    // covers timespan length 0, 1 tweet in timespan,
+    //        endpoints within the same millisecond as a tweet
+    @Test
+    public void testInTimespanSubMillisecond() {
+        TweetTimeline timeline = new TweetTimeline(Arrays.asList(tweet3, tweet4));
+
+        assertEquals("expected only tweet3", Arrays.asList(tweet3), timeline.inTimespan(new Timespan(d3, d3)));
+        assertEquals("expected only tweet4", Arrays.asList(tweet4), timeline.inTimespan(new Timespan(d3.plusNanos(1), d3nanos)));
+        assertTrue("expected empty list", timeline.inTimespan(new Timespan(d3.plusNanos(1), d3.plusNanos(2))).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class TweetTokenizerTest {
+
+    /*
+     * Partition for forEachMention() and forEachHashtag():
+     * matching words: 0, 1, > 1
+     * word position: start, middle, end of text
+     * separators: space, other whitespace, repeated whitespace
+     * near misses: sigil alone, email address, trailing punctuation,
+     *              sigil inside a word
+     * case: lowercase, mixed case
+     *
+     * results agree with splitting on \s and matching each word with a regex
+     */
+
+    private static List<String> mentions(String text) {
+        List<String> names = new ArrayList<>();
+        TweetTokenizer.forEachMention(text, names::add);
+        return names;
+    }
+
+    private static List<String> hashtags(String text) {
+        List<String> names = new ArrayList<>();
+        TweetTokenizer.forEachHashtag(text, names::add);
+        return names;
+    }
+
+    private static List<String> regex(String text, String sigil) {
+        List<String> names = new ArrayList<>();
+        for (String word : text.split("\\s")) {
+            if (Pattern.matches(sigil + "([A-Za-z0-9_-]+)", word)) {
+                names.add(word.substring(1).toLowerCase());
+            }
+        }
+        return names;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 matching words, near misses
+    @Test
+    public void testNoMentions() {
+        assertEquals("expected no mentions", Arrays.asList(),
+                mentions("mail mike@gmail.com or @ or @mike! or a@b about #hype"));
+    }
+
+    // covers > 1 matching words, start, middle and end of text,
+    //        other and repeated whitespace, mixed case
+    @Test
+    public void testMentionsInOrder() {
+        assertEquals("expected mentions in order", Arrays.asList("bbitdiddle", "alyssa", "mike_-2"),
+                mentions("@Bbitdiddle\t@ALYSSA  message\n@mike_-2"));
+    }
+
+    // covers 1 matching word, hashtag
+    @Test
+    public void testHashtag() {
+        assertEquals("expected hashtag", Arrays.asList("hype"), hashtags("rivest talk in 30 minutes #HYPE @hype"));
+    }
+
+    // covers random text against the regex implementation
+    @Test
+    public void testAgreesWithRegex() {
+        Random random = new Random(6005);
+        String alphabet = "@#aZ9_-. \t\n!";
+        for (int trial = 0; trial < 2000; trial++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertEquals("expected same mentions for '" + text + "'", regex(text.toString(), "@"), mentions(text.toString()));
+            assertEquals("expected same hashtags for '" + text + "'", regex(text.toString(), "#"), hashtags(text.toString()));
+        }
+    }
+}
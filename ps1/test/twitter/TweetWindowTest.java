@@ -0,0 +1,150 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetWindowTest {
+
+    /*
+     * Partition for TweetWindow:
+     * tweets in window: 0, 1, > 1
+     * arriving tweet: after the end, inside the window, on the start
+     *                 boundary, too old
+     * advanceTo(): later, earlier, evicts 0, some, all tweets
+     * hashtags: used once, repeated in one tweet, used by several tweets
+     *
+     * after every step the mentioned users and follows graph equal the batch
+     * computations of Extract and SocialNetwork over getTweets()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration FIFTEEN_MINUTES = Duration.ofMinutes(15);
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "@bbitdiddle #hype #hype", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype #mit",
+            d1.plus(Duration.ofMinutes(10)));
+    private static final Tweet tweet3 = new Tweet(3, "mike", "@Alyssa #mit", d1.plus(FIFTEEN_MINUTES));
+
+    private static void assertMatchesBatch(TweetWindow window) {
+        List<Tweet> tweets = window.getTweets();
+        assertEquals("expected mentioned users of window", Extract.getMentionedUsers(tweets),
+                window.getMentionedUsers());
+        assertEquals("expected follows graph of window", SocialNetwork.guessFollowsGraph(tweets),
+                window.getFollowsGraph());
+        assertEquals("expected influencers of window", SocialNetwork.influencers(window.getFollowsGraph(), 3),
+                window.influencers(3));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testEmpty() {
+        TweetWindow window = new TweetWindow(FIFTEEN_MINUTES);
+        window.advanceTo(d1);
+
+        assertEquals("expected no tweets", 0, window.size());
+        assertTrue("expected no mentions", window.getMentionedUsers().isEmpty());
+        assertTrue("expected no hashtags", window.topHashtags(5).isEmpty());
+        assertTrue("expected no influencers", window.influencers(5).isEmpty());
+    }
+
+    // covers > 1 tweets, after the end, start boundary, repeated hashtag,
+    //        hashtags used by several tweets
+    @Test
+    public void testTopHashtags() {
+        TweetWindow window = new TweetWindow(FIFTEEN_MINUTES);
+        window.add(tweet1);
+        window.add(tweet2);
+        window.add(tweet3);
+
+        assertEquals("expected all three tweets, including the one on the boundary", 3, window.size());
+        assertEquals("expected hashtags by number of tweets, then alphabetically",
+                Arrays.asList("hype", "mit"), window.topHashtags(5));
+        assertEquals("expected top hashtag", Arrays.asList("hype"), window.topHashtags(1));
+        assertEquals("expected mentioned users", new HashSet<>(Arrays.asList("alyssa", "bbitdiddle")),
+                window.getMentionedUsers());
+        assertMatchesBatch(window);
+    }
+
+    // covers advanceTo() later and earlier, evicts some and all tweets
+    @Test
+    public void testEviction() {
+        TweetWindow window = new TweetWindow(FIFTEEN_MINUTES);
+        window.add(tweet1);
+        window.add(tweet2);
+        window.add(tweet3);
+
+        window.advanceTo(d1.plus(Duration.ofMinutes(16)));
+        assertEquals("expected first tweet evicted", 2, window.size());
+        assertEquals("expected hashtag counts updated", Arrays.asList("mit", "hype"), window.topHashtags(5));
+        assertEquals("expected mention gone", Collections.singleton("alyssa"), window.getMentionedUsers());
+        assertMatchesBatch(window);
+
+        window.advanceTo(d1);
+        assertEquals("expected time not to move backward", 2, window.size());
+
+        window.advanceTo(d1.plus(Duration.ofHours(1)));
+        assertEquals("expected empty window", 0, window.size());
+        assertTrue("expected no hashtags", window.topHashtags(5).isEmpty());
+        assertMatchesBatch(window);
+    }
+
+    // covers too old, inside the window (out of order)
+    @Test
+    public void testOutOfOrder() {
+        TweetWindow window = new TweetWindow(FIFTEEN_MINUTES);
+        window.add(tweet3);
+
+        assertTrue("expected late tweet inside the window", window.add(tweet2));
+        assertTrue("expected tweet on the start boundary", window.add(tweet1));
+        assertFalse("expected tweet too old for the window",
+                window.add(new Tweet(4, "alyssa", "@mike", d1.minusSeconds(1))));
+        assertEquals("expected three tweets", 3, window.size());
+        assertMatchesBatch(window);
+    }
+
+    // covers a long random feed against batch computation
+    @Test
+    public void testRandomFeedMatchesBatch() {
+        Random random = new Random(6005);
+        TweetWindow window = new TweetWindow(Duration.ofMinutes(5), 6);
+        List<Tweet> feed = new ArrayList<>();
+        Instant now = d1;
+        Instant end = d1;
+        for (int i = 0; i < 600; i++) {
+            now = now.plusSeconds(random.nextInt(10));
+            Instant timestamp = now.minusSeconds(random.nextInt(400));
+            end = timestamp.isAfter(end) ? timestamp : end;
+            String text = "@user" + random.nextInt(20) + " #tag" + random.nextInt(10) + " #tag" + random.nextInt(10);
+            Tweet tweet = new Tweet(i, "user" + random.nextInt(20), text, timestamp);
+            window.add(tweet);
+            feed.add(tweet);
+
+            if (i % 50 == 49) {
+                List<Tweet> expected = Filter.inTimespan(feed, new Timespan(end.minus(Duration.ofMinutes(5)), end));
+                assertEquals("expected window tweets at step " + i,
+                        new HashSet<>(expected), new HashSet<>(window.getTweets()));
+                assertEquals("expected follows graph at step " + i,
+                        SocialNetwork.guessFollowsGraph(window.getTweets(), 6), window.getFollowsGraph());
+                assertEquals("expected influencers at step " + i,
+                        SocialNetwork.influencers(window.getFollowsGraph(), 5), window.influencers(5));
+                assertEquals("expected mentioned users at step " + i,
+                        Extract.getMentionedUsers(window.getTweets()), window.getMentionedUsers());
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import org.junit.Test;
+
+public class TwitterTimestampsTest {
+
+    /*
+     * Partition for parse() and parseEpochSecond():
+     * offset: zero, positive, negative
+     * date: ordinary, leap day, end of year
+     * input: well-formed, wrong day of week, invalid date, not the format
+     *
+     * well-formed input agrees with ZonedDateTime.parse on the same pattern
+     */
+
+    private static long expected(String createdAt) {
+        return ZonedDateTime.parse(createdAt, TwitterTimestamps.CREATED_AT_FORMAT).toEpochSecond();
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers zero offset, ordinary date
+    @Test
+    public void testParseUtc() {
+        assertEquals("expected instant", Instant.parse("2016-02-17T10:00:00Z"),
+                TwitterTimestamps.parse("Wed Feb 17 10:00:00 +0000 2016"));
+    }
+
+    // covers positive and negative offsets
+    @Test
+    public void testParseOffsets() {
+        assertEquals("expected instant", Instant.parse("2016-02-17T05:30:00Z"),
+                TwitterTimestamps.parse("Wed Feb 17 10:00:00 +0430 2016"));
+        assertEquals("expected instant", Instant.parse("2016-02-18T03:00:00Z"),
+                TwitterTimestamps.parse("Wed Feb 17 22:00:00 -0500 2016"));
+    }
+
+    // covers leap day, end of year
+    @Test
+    public void testParseMatchesFormatter() {
+        for (String createdAt : new String[] { "Mon Feb 29 23:59:59 +0000 2016",
+                                               "Fri Dec 31 12:00:00 -1130 1999",
+                                               "Thu Jan 01 00:00:00 +0000 1970" }) {
+            assertEquals("expected same as formatter for " + createdAt,
+                    expected(createdAt), TwitterTimestamps.parseEpochSecond(createdAt));
+        }
+    }
+
+    // covers wrong day of week
+    @Test(expected=DateTimeParseException.class)
+    public void testParseWrongDayOfWeek() {
+        TwitterTimestamps.parse("Thu Feb 17 10:00:00 +0000 2016");
+    }
+
+    // covers invalid date
+    @Test(expected=DateTimeParseException.class)
+    public void testParseInvalidDate() {
+        TwitterTimestamps.parse("Mon Feb 29 10:00:00 +0000 2015");
+    }
+
+    // covers not the format
+    @Test(expected=DateTimeParseException.class)
+    public void testParseNotFormat() {
+        TwitterTimestamps.parse("2016-02-17T10:00:00Z");
+    }
+}
@@ -0,0 +1,96 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+public class UsernamesTest {
+
+    /*
+     * Partition for Usernames:
+     * spelling: lowercase, mixed case, seen before, new
+     * lookup: whole string, range of a larger string; adding, not adding
+     * table growth: within capacity, beyond initial capacity
+     * threads: 1, > 1
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers lowercase, mixed case, seen before, new, whole string
+    @Test
+    public void testIgnoresCase() {
+        int id = Usernames.id("UsernamesTest_Alyssa");
+
+        assertEquals("expected same id ignoring case", id, Usernames.id("usernamestest_alyssa"));
+        assertEquals("expected same id again", id, Usernames.id("UsernamesTest_Alyssa"));
+        assertNotEquals("expected different user", id, Usernames.id("usernamestest_ben"));
+        assertEquals("expected lowercase name", "usernamestest_alyssa", Usernames.name(id));
+        assertSame("expected one canonical string", Usernames.canonical("USERNAMESTEST_ALYSSA"),
+                Usernames.canonical("usernamesTest_alyssa"));
+    }
+
+    // covers not adding, mixed case, new
+    @Test
+    public void testQueriesDoNotAdd() {
+        int size = Usernames.size();
+
+        assertEquals("expected absent", -1, Usernames.find("usernamesTest_nobody"));
+        assertEquals("expected a lowercase copy", "usernamestest_nobody", Usernames.canonical("UsernamesTest_Nobody"));
+        assertEquals("expected still absent", -1, Usernames.find("usernamestest_nobody"));
+        assertEquals("expected absent", -1, Usernames.find(""));
+        assertEquals("expected no new users", size, Usernames.size());
+
+        int id = Usernames.id("UsernamesTest_Cy");
+        Usernames.id("USERNAMESTEST_CY");
+        Usernames.id("usernamestest_cy");
+        assertEquals("expected one new user for every spelling", size + 1, Usernames.size());
+        assertEquals("expected found ignoring case", id, Usernames.find("usernamesTEST_cy"));
+        assertSame("expected the shared string", Usernames.name(id), Usernames.canonical("UsernamesTest_CY"));
+    }
+
+    // covers range of a larger string
+    @Test
+    public void testRange() {
+        String text = "hi @UsernamesTest_Mike!";
+
+        assertEquals("expected id of the range", Usernames.id("usernamestest_mike"), Usernames.id(text, 4, 22));
+    }
+
+    // covers beyond initial capacity, > 1 threads
+    @Test
+    public void testConcurrentGrowth() throws InterruptedException {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final boolean upper = t % 2 == 0;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    String name = "usernamesTestGrowth" + i;
+                    ids.add(Usernames.id(upper ? name.toUpperCase() : name));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("expected one id per distinct username", 5000, ids.size());
+        Set<String> names = new HashSet<>();
+        for (int id : ids) {
+            names.add(Usernames.name(id));
+        }
+        assertTrue("expected the lowercase names", names.contains("usernamestestgrowth4999"));
+        assertEquals("expected distinct names", 5000, names.size());
+    }
+}
@@ -0,0 +1,90 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * Immutable.
+ * This class is internal to the rep of ConcreteEdgesGraph and IndexedEdgesGraph.
+ *  
+ * This immutable data-type represents an edge in a directed graph.
+ * An edge has a source vertex, a target vertex and a positive weight.
+ * 
+ * <p>PS2 instructions: the specification and implementation of this class is
+ * up to you.
+ */
+class Edge<L> {
+    
+    // fields
+    private final L source;
+    private final L target;
+    private final Integer weight;
+    
+    // Abstraction function:
+    //   AF(source, target, weight) = an edge in a directed graph with a
+    //                                source and target vertices and weight
+    //
+    // Representation invariant:
+    //   weight > 0
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   source and target are immutable type L, weight is Integer - so are guaranteed immutable
+    
+    // constructor
+    
+    /**
+     * Create an Edge with a source name, target name, and weight.
+     *  
+     * @param source source vertex of the edge
+     * @param target target vertex of the edge
+     * @param weight weight of the edge
+     */
+     public Edge(L source, L target, Integer weight) {
+         this.source = source;
+         this.target = target;
+         this.weight = weight;
+         checkRep();
+     }
+    
+     // Check that the rep invariant is true
+     private void checkRep() {
+         assert source != null;
+         assert target != null;
+         assert weight > 0;
+     }
+    
+     // methods
+     
+     /**
+      * Gets the source of the edge
+      * 
+      * @return  source of the edge
+      */
+     public L getSource(){
+         return source;
+     }
+     
+     /**
+      * Gets the target of the edge
+      * 
+      * @return  target of the edge
+      */
+     public L getTarget(){
+         return target;
+     }
+     
+     /**
+      * Gets the weight of the edge
+      * 
+      * @return  weight of the edge
+      */
+     public Integer getWeight(){
+         return weight;
+     }
+     
+     @Override
+     public String toString(){
+         return source + "->" + target + "(weight = " + weight + ")";
+     }
+}
@@ -0,0 +1,182 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An implementation of Graph.
+ *
+ * Stores the same edges as ConcreteEdgesGraph, but also indexes them by source
+ * and by target, so set() takes O(1) expected time, sources() and targets()
+ * take time proportional to the number of edges returned, and remove() takes
+ * time proportional to the number of edges of the removed vertex, instead of
+ * each scanning every edge in the graph.
+ */
+public class IndexedEdgesGraph<L> implements Graph<L> {
+
+    private final Set<L> vertices = new HashSet<>();
+    private final Set<Edge<L>> edges = new LinkedHashSet<>();
+    private final Map<L, Map<L, Edge<L>>> outgoing = new HashMap<>();
+    private final Map<L, Map<L, Edge<L>>> incoming = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(vertices, edges, outgoing, incoming) = a directed graph composed of
+    //                         distinct vertices connected by weighted edges
+    //
+    // Representation invariant:
+    //   edges have positive weight
+    //   sources and targets of edges are in vertices
+    //   outgoing.get(s).get(t) == e and incoming.get(t).get(s) == e
+    //     for every edge e from s to t in edges, and no other edge is indexed
+    //   no map in outgoing or incoming is empty
+    //
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   vertices() makes a defensive copy, and sources() and targets() return
+    //   new maps, to avoid sharing the mutable rep with clients;
+    //   Edge is immutable.
+
+    // constructor
+    /**
+     * Create an empty IndexedEdgesGraph
+     */
+    public IndexedEdgesGraph() {
+        assert vertices.isEmpty() && edges.isEmpty();
+    }
+
+    // Check the rep invariant for the one pair of vertices an operation
+    // changed; checking every edge after every operation would make building
+    // a graph quadratic with assertions on
+    private void checkRep(L source, L target) {
+        assert outgoing.size() <= vertices.size();
+        assert incoming.size() <= vertices.size();
+        Map<L, Edge<L>> targets = outgoing.get(source);
+        Map<L, Edge<L>> sources = incoming.get(target);
+        assert targets == null || !targets.isEmpty();
+        assert sources == null || !sources.isEmpty();
+        Edge<L> edge = targets == null ? null : targets.get(target);
+        if (edge == null) {
+            assert sources == null || !sources.containsKey(source);
+        } else {
+            assert edge.getWeight() > 0;
+            assert edge.getSource().equals(source) && edge.getTarget().equals(target);
+            assert vertices.contains(source) && vertices.contains(target);
+            assert edges.contains(edge);
+            assert sources.get(source) == edge;
+        }
+    }
+
+    // methods
+
+    @Override public boolean add(L vertex) {
+        boolean result = vertices.add(vertex);
+        checkRep(vertex, vertex);
+        return result;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        Map<L, Edge<L>> targets = outgoing.get(source);
+        Edge<L> old = targets == null ? null : targets.get(target);
+        int oldWeight = old == null ? 0 : old.getWeight();
+
+        if (old != null) {
+            unlink(old);
+        }
+        if (weight > 0) {
+            vertices.add(source);
+            vertices.add(target);
+            link(new Edge<L>(source, target, weight));
+        }
+        checkRep(source, target);
+        return oldWeight;
+    }
+
+    /*
+     * Add an edge, known not to be in the graph, to edges and both indexes.
+     */
+    private void link(Edge<L> edge) {
+        edges.add(edge);
+        outgoing.computeIfAbsent(edge.getSource(), key -> new HashMap<>()).put(edge.getTarget(), edge);
+        incoming.computeIfAbsent(edge.getTarget(), key -> new HashMap<>()).put(edge.getSource(), edge);
+    }
+
+    /*
+     * Remove an edge of the graph from edges and both indexes.
+     */
+    private void unlink(Edge<L> edge) {
+        edges.remove(edge);
+        removeIndexed(outgoing, edge.getSource(), edge.getTarget());
+        removeIndexed(incoming, edge.getTarget(), edge.getSource());
+    }
+
+    private static <L> void removeIndexed(Map<L, Map<L, Edge<L>>> index, L key, L other) {
+        Map<L, Edge<L>> edgesOfKey = index.get(key);
+        edgesOfKey.remove(other);
+        if (edgesOfKey.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        if (!vertices.remove(vertex)) {
+            return false;
+        }
+        // copy, since unlink() modifies the index being iterated
+        for (Edge<L> edge : edgesOf(outgoing, vertex)) {
+            unlink(edge);
+        }
+        // a self-loop was already removed above
+        for (Edge<L> edge : edgesOf(incoming, vertex)) {
+            unlink(edge);
+        }
+        assert !outgoing.containsKey(vertex) && !incoming.containsKey(vertex);
+        checkRep(vertex, vertex);
+        return true;
+    }
+
+    private static <L> Set<Edge<L>> edgesOf(Map<L, Map<L, Edge<L>>> index, L vertex) {
+        Map<L, Edge<L>> edgesOfVertex = index.get(vertex);
+        return edgesOfVertex == null ? Collections.emptySet() : new HashSet<>(edgesOfVertex.values());
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<L>(vertices);
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return weights(incoming.get(target), true);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return weights(outgoing.get(source), false);
+    }
+
+    /*
+     * @return a new map from the other endpoint of each edge to its weight
+     */
+    private static <L> Map<L, Integer> weights(Map<L, Edge<L>> edgesOfVertex, boolean bySource) {
+        Map<L, Integer> result = new HashMap<>();
+        if (edgesOfVertex != null) {
+            for (Edge<L> edge : edgesOfVertex.values()) {
+                result.put(bySource ? edge.getSource() : edge.getTarget(), edge.getWeight());
+            }
+        }
+        return result;
+    }
+
+    @Override public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Edge<L> edge : edges) {
+            result.append(edge.toString()).append("\n");
+        }
+        return result.toString();
+    }
+
+}
@@ -106,10 +106,9 @@ public class GraphPoet {
             wordList.set(i, wordList.get(i).toLowerCase());
         }
         // add words to graph
+        // add() ignores words already in the graph
         for (String word : wordList) {
-            if (!graph.vertices().contains(word)) {
-                graph.add(word);
-            }
+            graph.add(word);
         }
         // set edges
         for (int i = 0; i < wordList.size()-1; i++) {
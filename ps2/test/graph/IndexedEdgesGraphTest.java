@@ -0,0 +1,147 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IndexedEdgesGraph.
+ *
+ * This class runs the GraphInstanceTest tests against IndexedEdgesGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class IndexedEdgesGraphTest extends GraphInstanceTest {
+
+    private static final String vertex1 = "v1";
+    private static final String vertex2 = "v2";
+    private static final String vertex3 = "v3";
+
+    private static final int weight1 = 1;
+    private static final int weight2 = 2;
+
+    /*
+     * Provide an IndexedEdgesGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new IndexedEdgesGraph<String>();
+    }
+
+    /*
+     * Testing IndexedEdgesGraph...
+     */
+
+    // Testing strategy for IndexedEdgesGraph.toString()
+    //      num edges = 0, 1, n
+    //      edge = new, modified
+    //
+    // Testing strategy for the indexes
+    //      edge = self-loop, between distinct vertices
+    //      remove() vertex = with self-loop, shared by edges in both directions
+    //      matches ConcreteEdgesGraph on the same operations
+
+    // tests for IndexedEdgesGraph.toString()
+
+    // covers num edges = 0
+    @Test
+    public void testToStringZeroEdges() {
+        Graph<String> graph = emptyInstance();
+        graph.add(vertex1);
+
+        assertEquals("expected empty string", "", graph.toString());
+    }
+
+    // covers num edges = 1
+    @Test
+    public void testToStringOneEdge() {
+        Graph<String> graph = emptyInstance();
+        graph.set(vertex1, vertex2, weight1);
+
+        assertEquals("expected string", "v1->v2(weight = 1)\n", graph.toString());
+    }
+
+    // covers num edges = n
+    //        modified edge
+    @Test
+    public void testToStringNEdgesModified() {
+        Graph<String> graph = emptyInstance();
+        graph.set(vertex1, vertex2, weight1);
+        graph.set(vertex1, vertex3, weight2);
+        graph.set(vertex1, vertex2, weight2);
+
+        String expected = "v1->v3(weight = 2)\nv1->v2(weight = 2)\n";
+
+        assertEquals("expected string", expected, graph.toString());
+    }
+
+    // tests for the indexes
+
+    // covers self-loop
+    //        remove() vertex with self-loop
+    @Test
+    public void testSelfLoop() {
+        Graph<String> graph = emptyInstance();
+        graph.set(vertex1, vertex1, weight1);
+        graph.set(vertex1, vertex2, weight2);
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put(vertex1, weight1);
+        expected.put(vertex2, weight2);
+
+        assertEquals("expected self-loop in targets", expected, graph.targets(vertex1));
+        assertEquals("expected self-loop in sources", Collections.singletonMap(vertex1, weight1), graph.sources(vertex1));
+        assertTrue("expected True, vertex in the Graph", graph.remove(vertex1));
+        assertEquals("expected no edges", Collections.emptyMap(), graph.sources(vertex2));
+        assertEquals("expected empty string", "", graph.toString());
+    }
+
+    // covers remove() vertex shared by edges in both directions
+    @Test
+    public void testRemoveKeepsOtherEdges() {
+        Graph<String> graph = emptyInstance();
+        graph.set(vertex1, vertex2, weight1);
+        graph.set(vertex2, vertex1, weight2);
+        graph.set(vertex2, vertex3, weight1);
+        graph.set(vertex3, vertex1, weight2);
+
+        assertTrue("expected True, vertex in the Graph", graph.remove(vertex1));
+        assertEquals("expected remaining edge", Collections.singletonMap(vertex3, weight1), graph.targets(vertex2));
+        assertEquals("expected remaining edge", Collections.singletonMap(vertex2, weight1), graph.sources(vertex3));
+        assertEquals("expected no edges", Collections.emptyMap(), graph.targets(vertex3));
+        assertEquals("expected string", "v2->v3(weight = 1)\n", graph.toString());
+    }
+
+    // covers matches ConcreteEdgesGraph
+    @Test
+    public void testMatchesConcreteEdgesGraph() {
+        Graph<Integer> indexed = new IndexedEdgesGraph<>();
+        Graph<Integer> concrete = new ConcreteEdgesGraph<>();
+        Random random = new Random(6005);
+
+        for (int i = 0; i < 2000; i++) {
+            int source = random.nextInt(20);
+            int target = random.nextInt(20);
+            int weight = random.nextInt(3);
+            if (random.nextInt(20) == 0) {
+                assertEquals("expected same result of remove()", concrete.remove(source), indexed.remove(source));
+            } else {
+                assertEquals("expected same previous weight",
+                        concrete.set(source, target, weight), indexed.set(source, target, weight));
+            }
+        }
+        assertEquals("expected same vertices", concrete.vertices(), indexed.vertices());
+        for (int vertex = 0; vertex < 20; vertex++) {
+            assertEquals("expected same sources", concrete.sources(vertex), indexed.sources(vertex));
+            assertEquals("expected same targets", concrete.targets(vertex), indexed.targets(vertex));
+        }
+        assertEquals("expected same edges in order", concrete.toString(), indexed.toString());
+    }
+}